@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Runs the same k6 load test against the application on platform threads and then on virtual threads
+# (the 'virtual-threads' profile) and keeps both summaries side by side in load-test/results (not versioned:
+# the numbers only mean something for the machine and the data they were measured on). A run recorded with a change
+# goes to load-test/measurements/<date>, with a note of the machine and the data: RESULTS=load-test/measurements/<date>.
+# Needs k6 (or else Node.js 20, see news-feed-node.mjs), a built war (./mvnw package -DskipTests)
+# and the database of application.properties with some news in it.
+#   RATE=400 DURATION=3m load-test/compare.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+WAR=$(ls target/*.war | head -n 1)
+PORT=${PORT:-8080}
+RESULTS=${RESULTS:-load-test/results}
+mkdir -p "$RESULTS"
+
+# Not local: the trap still has to see it once run has returned, on an error
+APP_PID=
+trap '[ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null' EXIT
+
+load() {
+    local mode=$1
+    if command -v k6 > /dev/null; then
+        k6 run -e BASE_URL="http://localhost:$PORT" --summary-export="$RESULTS/$mode.json" load-test/news-feed.js
+    else
+        BASE_URL="http://localhost:$PORT" SUMMARY="$RESULTS/$mode.json" node load-test/news-feed-node.mjs
+    fi
+}
+
+run() {
+    local mode=$1 profiles=$2
+    echo "=== $mode threads ==="
+    java -jar "$WAR" --server.port="$PORT" --spring.profiles.active="$profiles" --spring.jpa.show-sql=false \
+        > "$RESULTS/$mode.log" 2>&1 &
+    APP_PID=$!
+
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    # A mode that crosses the thresholds is a result too: the other mode is still measured
+    load "$mode" | tee "$RESULTS/$mode.txt" || echo "=== $mode threads: thresholds crossed ==="
+
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+}
+
+run platform default
+run virtual virtual-threads
+
+echo "The summaries are in $RESULTS/platform.txt and $RESULTS/virtual.txt"
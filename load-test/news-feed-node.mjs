@@ -0,0 +1,134 @@
+// The scenario of news-feed.js for the machines without k6, on Node.js 20 (its fetch): the same requests in the same mix,
+// at the same fixed arrival rate, and a summary with the same statistics. Run by compare.sh when k6 is not installed, or directly:
+//   BASE_URL=http://localhost:8080 RATE=200 DURATION=2m SUMMARY=summary.json node load-test/news-feed-node.mjs
+import { writeFileSync } from 'node:fs';
+
+const BASE_URL = process.env.BASE_URL || 'http://localhost:8080';
+const RATE = Number(process.env.RATE || 200);
+const DURATION = parseDuration(process.env.DURATION || '2m');
+// As the VUs of k6: an iteration due while MAX_VUS are in flight is dropped, and counted
+const MAX_VUS = Number(process.env.MAX_VUS || 1000);
+
+const TERMS = ['market', 'weather', 'election', 'football', 'science'];
+
+function parseDuration(value) {
+    const match = /^(\d+)(ms|s|m)$/.exec(value);
+    if (match === null) {
+        throw new Error(`Not a duration: ${value}`);
+    }
+    return Number(match[1]) * { ms: 1, s: 1000, m: 60000 }[match[2]];
+}
+
+async function setup() {
+    const body = await (await fetch(`${BASE_URL}/news`)).text();
+    const ids = [...body.matchAll(/href="\/news\/(\d+)"/g)].map(match => match[1]);
+    // The options of the category select only: the sort select has options ('oldest', 'relevance') too
+    const select = body.match(/<select id="category"[^>]*>([\s\S]*?)<\/select>/);
+    const categories = select === null ? [] : [...select[1].matchAll(/<option value="([^"]+)"/g)].map(match => match[1]);
+    if (ids.length === 0) {
+        throw new Error('There are no news to request, import some first (POST /news/import)');
+    }
+    return { ids, categories };
+}
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+function request(data) {
+    const dice = Math.random();
+    if (dice < 0.4) {
+        return ['feed', `${BASE_URL}/news`];
+    } else if (dice < 0.6 && data.categories.length > 0) {
+        return ['feed by category', `${BASE_URL}/news?category=${encodeURIComponent(pick(data.categories))}`];
+    } else if (dice < 0.8) {
+        return ['search', `${BASE_URL}/news?title=${pick(TERMS)}&content=${pick(TERMS)}`];
+    }
+    return ['news', `${BASE_URL}/news/${pick(data.ids)}`];
+}
+
+const durations = new Map();
+let requests = 0;
+let failed = 0;
+let dropped = 0;
+let inFlight = 0;
+
+async function iterate(data) {
+    const [name, url] = request(data);
+    const start = performance.now();
+    let ok = false;
+    try {
+        const response = await fetch(url);
+        await response.arrayBuffer();
+        ok = response.status === 200;
+    } catch {
+        ok = false;
+    }
+    const duration = performance.now() - start;
+    requests++;
+    if (!ok) {
+        failed++;
+    }
+    for (const key of ['all', name]) {
+        if (!durations.has(key)) {
+            durations.set(key, []);
+        }
+        durations.get(key).push(duration);
+    }
+}
+
+function trend(values) {
+    const sorted = [...values].sort((a, b) => a - b);
+    const percentile = p => sorted[Math.min(sorted.length - 1, Math.ceil(p / 100 * sorted.length) - 1)];
+    const round = value => Math.round(value * 100) / 100;
+    return {
+        count: sorted.length,
+        avg: round(sorted.reduce((sum, value) => sum + value, 0) / sorted.length),
+        'p(50)': round(percentile(50)),
+        'p(90)': round(percentile(90)),
+        'p(99)': round(percentile(99)),
+        max: round(sorted[sorted.length - 1]),
+    };
+}
+
+const data = await setup();
+const pending = new Set();
+const start = performance.now();
+for (let iteration = 0; ; iteration++) {
+    const due = start + iteration * 1000 / RATE;
+    if (due - start >= DURATION) {
+        break;
+    }
+    const wait = due - performance.now();
+    if (wait > 0) {
+        await new Promise(resolve => setTimeout(resolve, wait));
+    }
+    if (inFlight >= MAX_VUS) {
+        dropped++;
+        continue;
+    }
+    inFlight++;
+    const running = iterate(data).finally(() => {
+        inFlight--;
+        pending.delete(running);
+    });
+    pending.add(running);
+}
+await Promise.all(pending);
+const elapsed = (performance.now() - start) / 1000;
+
+const summary = {
+    rate: RATE,
+    duration_s: Math.round(elapsed * 10) / 10,
+    requests,
+    requests_per_s: Math.round(requests / elapsed * 10) / 10,
+    failed_rate: requests === 0 ? 0 : Math.round(failed / requests * 10000) / 10000,
+    dropped_iterations: dropped,
+    http_req_duration_ms: Object.fromEntries([...durations].map(([name, values]) => [name, trend(values)])),
+};
+if (process.env.SUMMARY) {
+    writeFileSync(process.env.SUMMARY, JSON.stringify(summary, null, 2) + '\n');
+}
+console.log(JSON.stringify(summary, null, 2));
+// As the threshold of news-feed.js
+process.exitCode = summary.failed_rate < 0.01 ? 0 : 99;
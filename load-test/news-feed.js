@@ -0,0 +1,59 @@
+// k6 load test of the news pages: the feed with and without filters, the next pages and the pages of single news.
+// Run by compare.sh against the platform-thread and the virtual-thread modes of the application, or directly:
+//   k6 run -e BASE_URL=http://localhost:8080 -e RATE=200 -e DURATION=2m load-test/news-feed.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    discardResponseBodies: false,
+    scenarios: {
+        feed: {
+            // A fixed arrival rate, so a slower mode shows up as latency and dropped iterations instead of fewer requests
+            executor: 'constant-arrival-rate',
+            rate: Number(__ENV.RATE || 200),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: Number(__ENV.VUS || 200),
+            maxVUs: Number(__ENV.MAX_VUS || 1000),
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(90)', 'p(99)', 'max'],
+};
+
+const TERMS = ['market', 'weather', 'election', 'football', 'science'];
+
+export function setup() {
+    const page = http.get(`${BASE_URL}/news`);
+    const ids = [...page.body.matchAll(/href="\/news\/(\d+)"/g)].map(match => match[1]);
+    // The options of the category select only: the sort select has options ('oldest', 'relevance') too
+    const select = page.body.match(/<select id="category"[^>]*>([\s\S]*?)<\/select>/);
+    const categories = select === null ? [] : [...select[1].matchAll(/<option value="([^"]+)"/g)].map(match => match[1]);
+    if (ids.length === 0) {
+        throw new Error('There are no news to request, import some first (POST /news/import)');
+    }
+    return { ids, categories };
+}
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+export default function (data) {
+    const dice = Math.random();
+    let response;
+    if (dice < 0.4) {
+        response = http.get(`${BASE_URL}/news`, { tags: { name: 'feed' } });
+    } else if (dice < 0.6 && data.categories.length > 0) {
+        response = http.get(`${BASE_URL}/news?category=${encodeURIComponent(pick(data.categories))}`, { tags: { name: 'feed by category' } });
+    } else if (dice < 0.8) {
+        response = http.get(`${BASE_URL}/news?title=${pick(TERMS)}&content=${pick(TERMS)}`, { tags: { name: 'search' } });
+    } else {
+        response = http.get(`${BASE_URL}/news/${pick(data.ids)}`, { tags: { name: 'news' } });
+    }
+    check(response, { 'status is 200': r => r.status === 200 });
+}
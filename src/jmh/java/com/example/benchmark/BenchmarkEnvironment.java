@@ -0,0 +1,118 @@
+package com.example.benchmark;
+
+import com.example.TrendSoftNewsFeedSpringMvcApplication;
+import com.example.service.CategoryService;
+import com.example.service.NewsFeedCache;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.Getter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Starts the application (without the web server) against an embedded PostgreSQL seeded with a fixed, reproducible
+// data set, so that the benchmarks measure the same queries on every run and do not need a database to be installed.
+// Shared by all the benchmarks of a fork and stopped when the last of them is torn down.
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    public static final int CATEGORIES = 10;
+    public static final int NEWS = 50_000;
+
+    // Every title and content are built from these words, so a search term always hits a predictable share of the news
+    public static final List<String> WORDS = List.of(
+            "market", "weather", "election", "football", "science",
+            "travel", "health", "music", "economy", "technology");
+
+    private static BenchmarkEnvironment instance;
+    private static int users;
+
+    private final EmbeddedPostgres postgres;
+    @Getter
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        context = new SpringApplicationBuilder(TrendSoftNewsFeedSpringMvcApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(CategoryService.class).evictCache();
+        context.getBean(NewsFeedCache.class).clear();
+    }
+
+    public static synchronized BenchmarkEnvironment acquire() {
+        if (instance == null) {
+            try {
+                instance = new BenchmarkEnvironment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("The embedded database could not be started", e);
+            }
+        }
+        users++;
+        return instance;
+    }
+
+    public static synchronized void release() {
+        if (--users == 0) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public static String categoryName(int index) {
+        return "category-" + index;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+
+        var categories = new ArrayList<Object[]>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(new Object[] { categoryName(i) });
+        }
+        jdbcTemplate.batchUpdate("insert into categories (name) values (?)", categories);
+
+        var categoryIds = jdbcTemplate.queryForList("select id from categories order by id", Integer.class);
+        var now = LocalDateTime.now();
+
+        var news = new ArrayList<Object[]>(NEWS);
+        for (int i = 1; i <= NEWS; i++) {
+            var title = "News " + i + " about " + word(i) + " and " + word(i / 7);
+            var content = "Today " + word(i / 3) + " meets " + word(i / 11) + ", " + word(i / 13) + " follows.";
+            var publishedAt = Timestamp.valueOf(now.minusMinutes(i));
+            news.add(new Object[] { (long) i, title, content, publishedAt, categoryIds.get(i % CATEGORIES) });
+        }
+        jdbcTemplate.batchUpdate("insert into news (id, title, content, published_at, category_id) values (?, ?, ?, ?, ?)", news);
+        jdbcTemplate.execute("select setval('news_seq', (select max(id) from news))");
+        jdbcTemplate.execute("analyze");
+    }
+
+    private static String word(int index) {
+        return WORDS.get(index % WORDS.size());
+    }
+}
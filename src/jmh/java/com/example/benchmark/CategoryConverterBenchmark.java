@@ -0,0 +1,38 @@
+package com.example.benchmark;
+
+import com.example.controller.converter.CategoryConverter;
+import com.example.model.Category;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// CategoryConverter.convert, which runs for every request of the news list with the 'category' parameter.
+// The lookups of the existing and the unknown categories go through the category caches.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryConverterBenchmark {
+
+    @Param({ "category-3", "all categories", "unknown-category" })
+    private String source;
+
+    private CategoryConverter categoryConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        categoryConverter = BenchmarkEnvironment.acquire().getBean(CategoryConverter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.release();
+    }
+
+    @Benchmark
+    public Category convert() {
+        return categoryConverter.convert(source);
+    }
+}
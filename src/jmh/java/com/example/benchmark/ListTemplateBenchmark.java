@@ -0,0 +1,87 @@
+package com.example.benchmark;
+
+import com.example.model.Category;
+import com.example.model.NewsSummary;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Full rendering of 'news/list.html' with the same engine setup as the application (SpringEL, cached templates),
+// for lists of different sizes. No database is needed: the model is built in memory.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListTemplateBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int size;
+
+    private SpringTemplateEngine templateEngine;
+    private WebContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        var templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(true);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setEnableSpringELCompiler(true);
+        templateEngine.setTemplateResolver(templateResolver);
+
+        var categories = new ArrayList<Category>();
+        for (int i = 0; i < BenchmarkEnvironment.CATEGORIES; i++) {
+            categories.add(new Category(i + 1, BenchmarkEnvironment.categoryName(i), null));
+        }
+
+        // Spread over a few days so that every branch of the date shortening is rendered
+        var now = LocalDateTime.now();
+        var listNews = new ArrayList<NewsSummary>(size);
+        for (int i = 1; i <= size; i++) {
+            listNews.add(new NewsSummary((long) i, "News " + i + " about " + BenchmarkEnvironment.WORDS.get(i % 10),
+                    now.minusMinutes(i * 5L), categories.get(i % categories.size()).getName()));
+        }
+
+        var servletContext = new MockServletContext();
+        var request = new MockHttpServletRequest(servletContext, "GET", "/news");
+        var exchange = JakartaServletWebApplication.buildApplication(servletContext)
+                .buildExchange(request, new MockHttpServletResponse());
+
+        context = new WebContext(exchange);
+        context.setVariables(Map.of(
+                "listNews", listNews,
+                "categories", List.copyOf(categories),
+                "selectedCategories", Set.of(),
+                "title", "about",
+                "sort", "",
+                "nextPage", "/news?title=about&after=" + now + "_1"));
+    }
+
+    @Benchmark
+    public int render() {
+        var writer = new StringWriter(size * 128);
+        templateEngine.process("news/list", context, writer);
+        return writer.getBuffer().length();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.benchmark;
+
+import com.example.model.Category;
+import com.example.model.NewsSummary;
+import com.example.service.CategoryFeed;
+import com.example.service.CategoryService;
+import com.example.service.NewsFeedCache;
+import com.example.service.NewsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Window;
+
+import java.util.concurrent.TimeUnit;
+
+// NewsService.getAllByParams for each of the eight combinations of the title, content and category filters,
+// both when the page is read from the database ('cached' = false) and when it is served by the feed cache
+// (or, filtered by nothing but the category, by the latest news of the category kept in memory).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NewsServiceBenchmark {
+
+    public enum Filter {
+        NONE(false, false, false),
+        TITLE(true, false, false),
+        CONTENT(false, true, false),
+        CATEGORY(false, false, true),
+        TITLE_CONTENT(true, true, false),
+        TITLE_CATEGORY(true, false, true),
+        CONTENT_CATEGORY(false, true, true),
+        TITLE_CONTENT_CATEGORY(true, true, true);
+
+        private final boolean title;
+        private final boolean content;
+        private final boolean category;
+
+        Filter(boolean title, boolean content, boolean category) {
+            this.title = title;
+            this.content = content;
+            this.category = category;
+        }
+    }
+
+    @Param
+    private Filter filter;
+
+    @Param({ "false", "true" })
+    private boolean cached;
+
+    private NewsService newsService;
+    private NewsFeedCache newsFeedCache;
+    private CategoryFeed categoryFeed;
+
+    private String title;
+    private String content;
+    private Category category;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var environment = BenchmarkEnvironment.acquire();
+        newsService = environment.getBean(NewsService.class);
+        newsFeedCache = environment.getBean(NewsFeedCache.class);
+        categoryFeed = environment.getBean(CategoryFeed.class);
+
+        title = filter.title ? "market" : null;
+        content = filter.content ? "weather" : null;
+        category = filter.category
+                ? environment.getBean(CategoryService.class).getByName(BenchmarkEnvironment.categoryName(3))
+                : null;
+    }
+
+    // Invocation-level setup adds its own overhead, but a page query takes far longer than the timestamping
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if (!cached) {
+            newsFeedCache.clear();
+            categoryFeed.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.release();
+    }
+
+    @Benchmark
+    public Window<NewsSummary> getAllByParams() {
+        return newsService.getAllByParams(title, content, category, null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.benchmark;
+
+import com.example.model.Category;
+import com.example.model.News;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+// News.shortView() and News.getPublishedAtShortened(), which are called for every item of a rendered list.
+// Each of the three date branches ('today', 'yesterday', a full date) is measured separately.
+// The 'uncached' benchmarks are the previous implementation, which read the date and formatted anew for every call,
+// as the baseline of PublishedAtFormatter. Run with '-prof gc' to compare the allocations per call as well.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsShortViewBenchmark {
+
+    public enum PublishedAt {
+        TODAY(0), YESTERDAY(1), OLDER(30);
+
+        private final int daysAgo;
+
+        PublishedAt(int daysAgo) {
+            this.daysAgo = daysAgo;
+        }
+    }
+
+    @Param
+    private PublishedAt publishedAt;
+
+    private News news;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Keeps 'today' and 'yesterday' on the same date even if the benchmark is started just before midnight
+        var date = LocalDateTime.now().withHour(0).withMinute(1).minusDays(publishedAt.daysAgo);
+        news = new News(1L, "An ordinary title of a news of a regular length", "content",
+                date, new Category(1, "category-1", null));
+    }
+
+    @Benchmark
+    public String shortView() {
+        return news.shortView();
+    }
+
+    @Benchmark
+    public String getPublishedAtShortened() {
+        return news.getPublishedAtShortened();
+    }
+
+    @Benchmark
+    public String shortViewUncached() {
+        var sb = new StringBuilder();
+        if (news.getPublishedAt() != null) {
+            sb.append(shortenPublishedAtUncached(news.getPublishedAt()));
+            sb.append(" - ");
+        }
+        sb.append(news.getTitle());
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String getPublishedAtShortenedUncached() {
+        return shortenPublishedAtUncached(news.getPublishedAt());
+    }
+
+    private static String shortenPublishedAtUncached(LocalDateTime publishedAt) {
+
+        if (publishedAt == null) {
+            return "";
+        }
+
+        var sb = new StringBuilder();
+
+        if (publishedAt.toLocalDate().equals(LocalDate.now())) {
+            sb.append(publishedAt.toLocalTime().truncatedTo(ChronoUnit.SECONDS));
+        } else if (publishedAt.toLocalDate().equals(LocalDate.now().minusDays(1L))) {
+            sb.append("yesterday");
+        } else {
+            sb.append(publishedAt.toLocalDate());
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.config;
+
+import com.example.service.NewsFeedCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// The caches are configured by the 'spring.cache.*' properties, except for the news feed cache which also expires its entries
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> newsFeedCacheCustomizer(
+            @Value("${news.feed-cache.maximum-size:10000}") long maximumSize,
+            @Value("${news.feed-cache.expire-after-write:30s}") Duration expireAfterWrite) {
+
+        return cacheManager -> cacheManager.registerCustomCache(NewsFeedCache.CACHE_NAME,
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(expireAfterWrite)
+                        .recordStats()
+                        .build());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.config;
+
+import com.example.datasource.ReadWriteRoutingDataSource;
+import com.example.datasource.ReadYourWritesFilter;
+import com.example.datasource.ReadYourWritesTaskDecorator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Opt-in ('news.datasource.routing-enabled=true'): the read-only transactions go to the replicas of 'news.datasource.replicas',
+// the rest to the primary of 'spring.datasource'. Replaces the DataSource of Spring Boot, see ReadWriteRoutingDataSource.
+// The pools of the replicas are not beans, so they are closed along with this configuration.
+// Locally: docker-compose -f docker-compose.replica.yml up, then run with the 'replica' profile.
+@Configuration
+@ConditionalOnProperty("news.datasource.routing-enabled")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@RequiredArgsConstructor
+public class DataSourceRoutingConfiguration implements DisposableBean {
+
+    private final ReplicaDataSourceProperties properties;
+
+    private final List<HikariDataSource> replicaDataSources = new ArrayList<>();
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        var dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+
+        var replicas = new ArrayList<DataSource>();
+        for (var replica : properties.getReplicas()) {
+            var dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setMinimumIdle(replica.getMinimumIdle());
+            dataSource.setReadOnly(true);
+            dataSource.setMetricRegistry(meterRegistry);
+            replicaDataSources.add(dataSource);
+            replicas.add(dataSource);
+        }
+
+        routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties.getLoadBalancing());
+        Gauge.builder("datasource.replicas.healthy", routingDataSource, ReadWriteRoutingDataSource::getHealthyReplicasCount)
+                .register(meterRegistry);
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.getReadYourWritesWindow()));
+    }
+
+    // Picked up by the task executor of Spring Boot, which writes the streamed responses of Spring MVC
+    @Bean
+    public TaskDecorator readYourWritesTaskDecorator() {
+        return new ReadYourWritesTaskDecorator();
+    }
+
+    @Scheduled(fixedDelayString = "${news.datasource.health-check-interval:PT10S}")
+    public void checkReplicas() {
+        if (routingDataSource != null) {
+            routingDataSource.checkReplicas((int) properties.getHealthCheckTimeout().toSeconds());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicaDataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.config;
+
+import com.example.datasource.ReadWriteRoutingDataSource;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// 'news.datasource.*': the read replicas of the database (the primary is 'spring.datasource.*'), see DataSourceRoutingConfiguration
+@ConfigurationProperties("news.datasource")
+@Getter @Setter
+public class ReplicaDataSourceProperties {
+
+    private boolean routingEnabled;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private ReadWriteRoutingDataSource.LoadBalancing loadBalancing = ReadWriteRoutingDataSource.LoadBalancing.ROUND_ROBIN;
+
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    // How long the reads of a client go to the primary after its last write; should exceed the replication lag
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    @Getter @Setter
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 2;
+    }
+}
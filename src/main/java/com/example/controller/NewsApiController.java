@@ -0,0 +1,149 @@
+package com.example.controller;
+
+import com.example.controller.converter.ScrollPositionConverter;
+import com.example.model.Category;
+import com.example.model.NewsField;
+import com.example.model.NewsItem;
+import com.example.service.NewsService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// JSON API of the news feed, with the same filters as the news list page (see NewsController.getAll), but the relevance order.
+// The items are written to the response one by one as they are read from the database, so a page is never held in memory:
+//   GET /api/news?title=...&content=...&category=...&category=...&from=2024-01-01&to=2024-01-31&sort=oldest
+//                &after=<cursor>&limit=100&fields=id,title,publishedAt
+//   -> {"items": [...], "next": "<cursor of the next page, or null>"}
+@RestController
+@RequestMapping("/api/news")
+@RequiredArgsConstructor
+public class NewsApiController {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final NewsService newsService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    // Timed by hand rather than with @Timed, which would stop as soon as the body is returned, before it is written:
+    // 'controller.api.getAll' covers the query and the serialization, which run while the body is written
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestParam(value = "title", required = false) String title,
+                                                        @RequestParam(value = "content", required = false) String content,
+                                                        @RequestParam(value = "category", required = false) List<Category> categories,
+                                                        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(value = "sort", required = false) String sort,
+                                                        @RequestParam(value = "after", required = false) KeysetScrollPosition after,
+                                                        @RequestParam(value = "limit", defaultValue = "" + NewsService.PAGE_SIZE) int limit,
+                                                        @RequestParam(value = "fields", required = false) String fields) {
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The limit must be between 1 and " + MAX_LIMIT);
+        }
+        // Ranked matches have no keyset to stream the pages by
+        if (NewsController.isSortedByRelevance(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The API does not sort by relevance");
+        }
+        var selectedFields = parseFields(fields);
+        var filter = NewsController.filterOf(title, content, categories, from, to, sort);
+
+        StreamingResponseBody body = outputStream -> {
+            var sample = Timer.start(meterRegistry);
+            var exception = "none";
+            try (var generator = objectMapper.createGenerator(outputStream)) {
+                // One more item than the limit is read to know whether there is a next page
+                newsService.streamByParams(filter, after, limit + 1, selectedFields.contains(NewsField.CONTENT),
+                        news -> {
+                            write(generator, news.iterator(), limit, selectedFields);
+                            return null;
+                        });
+            } catch (IOException | RuntimeException e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                // The tags of @Timed
+                sample.stop(meterRegistry.timer("controller.api.getAll",
+                        "class", NewsApiController.class.getName(), "method", "getAll", "exception", exception));
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static Set<NewsField> parseFields(String fields) {
+        try {
+            return NewsField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private static void write(JsonGenerator generator, Iterator<NewsItem> news, int limit, Set<NewsField> fields) {
+        try {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+
+            NewsItem last = null;
+            var count = 0;
+            while (count < limit && news.hasNext()) {
+                last = news.next();
+                writeItem(generator, last, fields);
+                count++;
+            }
+
+            generator.writeEndArray();
+            generator.writeFieldName("next");
+            if (last != null && news.hasNext()) {
+                var position = ScrollPosition.forward(Map.of("publishedAt", last.getPublishedAt(), "id", last.getId()));
+                generator.writeString(ScrollPositionConverter.toCursor(position));
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeItem(JsonGenerator generator, NewsItem item, Set<NewsField> fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.contains(NewsField.ID)) {
+            generator.writeNumberField(NewsField.ID.getName(), item.getId());
+        }
+        if (fields.contains(NewsField.TITLE)) {
+            generator.writeStringField(NewsField.TITLE.getName(), item.getTitle());
+        }
+        if (fields.contains(NewsField.CONTENT)) {
+            generator.writeStringField(NewsField.CONTENT.getName(), item.getContent());
+        }
+        if (fields.contains(NewsField.PUBLISHED_AT)) {
+            generator.writeObjectField(NewsField.PUBLISHED_AT.getName(), item.getPublishedAt());
+        }
+        if (fields.contains(NewsField.CATEGORY)) {
+            generator.writeStringField(NewsField.CATEGORY.getName(), item.getCategoryName());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -3,28 +3,67 @@ package com.example.controller;
 import com.example.exception.NewsNotFoundException;
 import com.example.model.Category;
 import com.example.model.News;
+import com.example.model.NewsFilter;
+import com.example.model.NewsWrite;
 import com.example.service.CategoryService;
+import com.example.service.NewsFeedVersion;
 import com.example.service.NewsService;
+import com.example.service.NewsWritePipeline;
+import com.example.view.NewsListSnapshots;
+import com.example.view.NewsListView;
 import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Objects;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Controller
 @RequestMapping("/news")
 @RequiredArgsConstructor
 public class NewsController {
 
+    private static final String SORT_BY_RELEVANCE = "relevance";
+    private static final String SORT_OLDEST_FIRST = "oldest";
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    // A key is a segment of the URI of its status page (see submit), so it is restricted to the characters safe there
+    private static final Pattern IDEMPOTENCY_KEY = Pattern.compile("[A-Za-z0-9_-]{1,100}");
+
     private final NewsService newsService;
     private final CategoryService categoryService;
+    private final NewsFeedVersion newsFeedVersion;
+
+    // Present if the writes are asynchronous ('news.write-pipeline.enabled')
+    private final Optional<NewsWritePipeline> writePipeline;
+
+    // Present if the feed and the category pages are pre-rendered ('news.snapshots.enabled')
+    private final Optional<NewsListSnapshots> listSnapshots;
 
     @GetMapping("/{id}")
-    public String getById(@PathVariable long id, Model model) {
+    public String getById(@PathVariable long id, Model model, WebRequest webRequest, HttpServletResponse response) {
+        if (checkNotModified(webRequest, response)) {
+            return null;
+        }
         var news = newsService.getById(id);
         if (news == null) {
             throw new NewsNotFoundException(id);
@@ -35,39 +74,77 @@ public class NewsController {
 
     @GetMapping
     @Timed("controller.getAll")
-    public String getAll(Model model,
+    public String getAll(Model model, HttpServletRequest request,
                          @RequestParam(value = "title", required = false) String title,
                          @RequestParam(value = "content", required = false) String content,
-                         @RequestParam(value = "category", required = false) Category category) {
+                         @RequestParam(value = "category", required = false) List<Category> categories,
+                         @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                         @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                         @RequestParam(value = "after", required = false) KeysetScrollPosition after,
+                         @RequestParam(value = "sort", required = false) String sort,
+                         WebRequest webRequest, HttpServletResponse response) throws IOException {
+
+        if (checkNotModified(webRequest, response)) {
+            return null;
+        }
 
-        var news = newsService.getAllByParams(title, content, category);
+        var filter = filterOf(title, content, categories, from, to, sort);
+
+        if (after == null && !SORT_BY_RELEVANCE.equals(sort) && listSnapshots.isPresent()) {
+            var snapshot = listSnapshots.get().get(filter);
+            if (snapshot != null) {
+                response.setContentType(MediaType.TEXT_HTML_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.setContentLength(snapshot.length);
+                response.getOutputStream().write(snapshot);
+                return null;
+            }
+        }
 
-        model.addAttribute("listNews", news);
+        if (SORT_BY_RELEVANCE.equals(sort)) {
+            var news = newsService.searchByRelevance(filter);
+            model.addAllAttributes(NewsListView.listModel(filter, from, to, sort, news, null, categoryService.getAll()));
+        } else {
+            var news = newsService.getAllByParams(filter, after);
+            model.addAllAttributes(NewsListView.listModel(filter, from, to, sort, news.getContent(),
+                    NewsListView.nextPageUri(request.getRequestURI(), request.getQueryString(), news), categoryService.getAll()));
+        }
 
-        model.addAttribute("title", Objects.requireNonNullElse(title, "").isEmpty() ? null : title);
-        model.addAttribute("content", Objects.requireNonNullElse(content, "").isEmpty() ? null : content);
-        model.addAttribute("category", category);
+        return "news/list";
+    }
 
-        model.addAttribute("categories", categoryService.getAll());
+    // The filter of the request parameters of the list, also taken by NewsApiController
+    static NewsFilter filterOf(String title, String content, List<Category> categories, LocalDate from, LocalDate to, String sort) {
+        return NewsFilter.of(title, content, categories, from, to, SORT_OLDEST_FIRST.equals(sort) ? NewsFilter.Sort.OLDEST : NewsFilter.Sort.NEWEST);
+    }
 
-        return "news/list";
+    static boolean isSortedByRelevance(String sort) {
+        return SORT_BY_RELEVANCE.equals(sort);
     }
 
     @GetMapping("/add")
     public String initCreation(Model model) {
         model.addAttribute("news", new News());
         model.addAttribute("categories", categoryService.getAll());
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "news/createForm";
     }
 
     @PostMapping
     public String processCreation(Model model,
-                         @ModelAttribute @Valid News news, BindingResult bindingResult) {
+                         @ModelAttribute @Valid News news, BindingResult bindingResult,
+                         @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey,
+                         @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKeyHeader) {
+        var key = idempotencyKey(idempotencyKey, idempotencyKeyHeader);
         if (bindingResult.hasErrors()) {
             model.addAttribute("news", news);
             model.addAttribute("categories", categoryService.getAll());
+            model.addAttribute("idempotencyKey", key);
             return "news/createForm";
         }
+        if (writePipeline.isPresent()) {
+            return submit(writePipeline.get(), NewsWrite.of(key, NewsWrite.Operation.CREATE, null, news));
+        }
         news = newsService.create(news);
         return "redirect:/news/" + news.getId();
     }
@@ -80,18 +157,26 @@ public class NewsController {
         }
         model.addAttribute("news", news);
         model.addAttribute("categories", categoryService.getAll());
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "news/updateForm";
     }
 
     @PatchMapping("/{id}")
     public String processUpdating(@PathVariable Long id,
                                   @ModelAttribute @Valid News news, BindingResult bindingResult,
+                                  @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey,
+                                  @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKeyHeader,
                                   Model model) {
+        var key = idempotencyKey(idempotencyKey, idempotencyKeyHeader);
         if (bindingResult.hasErrors()) {
             model.addAttribute("news", news);
             model.addAttribute("categories", categoryService.getAll());
+            model.addAttribute("idempotencyKey", key);
             return "news/updateForm";
         }
+        if (writePipeline.isPresent()) {
+            return submit(writePipeline.get(), NewsWrite.of(key, NewsWrite.Operation.UPDATE, id, news));
+        }
         news = newsService.update(id, news);
         return "redirect:/news/" + news.getId();
     }
@@ -101,4 +186,32 @@ public class NewsController {
         newsService.deleteById(id);
         return "redirect:/news";
     }
+
+    // The write is acknowledged as soon as it is journaled: the client waits for it on its status page
+    private static String submit(NewsWritePipeline pipeline, NewsWrite write) {
+        if (pipeline.submit(write) == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many news writes are pending");
+        }
+        return "redirect:/news/writes/" + write.getKey();
+    }
+
+    // A form carries the key it was rendered with, so a resubmitted form is written once
+    private static String idempotencyKey(String idempotencyKey, String idempotencyKeyHeader) {
+        var key = idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : idempotencyKeyHeader;
+        if (key == null || key.isBlank()) {
+            return UUID.randomUUID().toString();
+        }
+        if (!IDEMPOTENCY_KEY.matcher(key).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The idempotency key must be 1 to 100 letters, digits, '-' or '_'");
+        }
+        return key;
+    }
+
+    // Taken before the page is read, so that the page is never older than its version
+    private boolean checkNotModified(WebRequest webRequest, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        var version = newsFeedVersion.current();
+        return webRequest.checkNotModified(version.getETag(), version.getLastModified());
+    }
 }
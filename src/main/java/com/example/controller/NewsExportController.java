@@ -0,0 +1,61 @@
+package com.example.controller;
+
+import com.example.service.NewsExportService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+// Export of all the news, as NDJSON (default) or CSV, gzip-compressed if the client accepts it:
+//   curl --compressed -o news.ndjson 'http://localhost:8080/news/export?format=ndjson'
+// The response is written while the rows are read, so it is sent in chunks and its length is not known in advance.
+@RestController
+@RequestMapping("/news/export")
+@RequiredArgsConstructor
+public class NewsExportController {
+
+    private final NewsExportService newsExportService;
+
+    @GetMapping
+    @Timed("controller.exportNews")
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String formatName,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+
+        var format = parseFormat(formatName);
+        var extension = format.name().toLowerCase(Locale.ROOT);
+        response.setContentType(format == NewsExportService.Format.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("news." + extension).build().toString());
+
+        if (acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            // Sync flush, so that every flushed chunk actually reaches the client instead of waiting in the deflater
+            try (var output = new GZIPOutputStream(response.getOutputStream(), 8192, true)) {
+                newsExportService.export(format, output);
+            }
+        } else {
+            newsExportService.export(format, response.getOutputStream());
+        }
+    }
+
+    private static NewsExportService.Format parseFormat(String format) {
+        try {
+            return NewsExportService.Format.valueOf(format.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format '" + format + "'", e);
+        }
+    }
+}
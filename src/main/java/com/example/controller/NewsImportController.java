@@ -0,0 +1,33 @@
+package com.example.controller;
+
+import com.example.model.NewsImportItem;
+import com.example.model.NewsImportResult;
+import com.example.service.NewsImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Bulk import of news from wire feeds. The body is either a JSON array of items or NDJSON (one item per line);
+// in both cases it is read item by item, so the whole body is never held in memory.
+@RestController
+@RequestMapping("/news/import")
+@RequiredArgsConstructor
+public class NewsImportController {
+
+    private final NewsImportService newsImportService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(consumes = { "application/json", "application/x-ndjson" })
+    @Timed("controller.importNews")
+    public NewsImportResult importNews(InputStream body) throws IOException {
+        try (var items = objectMapper.readerFor(NewsImportItem.class).<NewsImportItem>readValues(body)) {
+            return newsImportService.importNews(items);
+        }
+    }
+}
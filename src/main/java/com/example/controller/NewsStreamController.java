@@ -0,0 +1,40 @@
+package com.example.controller;
+
+import com.example.service.NewsStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+// Stream of the created and updated news (Server-Sent Events), resumed after the 'Last-Event-ID' header or the 'lastEventId' param
+@RestController
+@RequestMapping("/news/stream")
+@RequiredArgsConstructor
+public class NewsStreamController {
+
+    private final NewsStream newsStream;
+
+    @Value("${news.stream.timeout:30m}")
+    private Duration timeout;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+
+        var emitter = new SseEmitter(timeout.toMillis());
+        var lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        if (!newsStream.subscribe(emitter, lastEventId)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many subscribers of the news stream");
+        }
+        return emitter;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.controller;
+
+import com.example.model.NewsWriteStatus;
+import com.example.service.NewsWritePipeline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+// Status of a write accepted by NewsWritePipeline, by its idempotency key
+@Controller
+@ConditionalOnProperty(name = "news.write-pipeline.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class NewsWriteController {
+
+    private final NewsWritePipeline writePipeline;
+
+    @GetMapping("/news/writes/{key}")
+    public String getStatusPage(@PathVariable String key, Model model) {
+        var status = getStatus(key);
+        if (status.getState() == NewsWriteStatus.State.DONE) {
+            return "redirect:/news/" + status.getNewsId();
+        }
+        model.addAttribute("status", status);
+        return "news/pending";
+    }
+
+    @GetMapping(value = "/api/news/writes/{key}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public NewsWriteStatus getStatus(@PathVariable String key) {
+        var status = writePipeline.getStatus(key);
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown news write '" + key + "'");
+        }
+        return status;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.controller.converter;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+// Converts the 'after' cursor of the news list ('<publishedAt>_<id>') into a keyset position and back.
+@Component
+public class ScrollPositionConverter implements Converter<String, KeysetScrollPosition> {
+
+    private static final char SEPARATOR = '_';
+
+    @Override
+    public KeysetScrollPosition convert(@Nonnull String source) {
+        if (source.isBlank()) {
+            return null;
+        }
+        var separatorIndex = source.lastIndexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Cursor '" + source + "' is malformed");
+        }
+        try {
+            var publishedAt = LocalDateTime.parse(source.substring(0, separatorIndex));
+            var id = Long.parseLong(source.substring(separatorIndex + 1));
+            return ScrollPosition.forward(Map.of("publishedAt", publishedAt, "id", id));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor '" + source + "' is malformed", e);
+        }
+    }
+
+    public static String toCursor(KeysetScrollPosition position) {
+        var keys = position.getKeys();
+        return String.valueOf(keys.get("publishedAt")) + SEPARATOR + keys.get("id");
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends the read-only transactions to one of the healthy replicas and everything else to the primary.
+// Must be wrapped into a LazyConnectionDataSourceProxy: the transaction managers get the connection before they mark
+// the transaction as read-only, the proxy defers it to the first statement, when the flag is already set.
+// Reads fall back to the primary when no replica is healthy or when ReadYourWrites pins them.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum LoadBalancing { ROUND_ROBIN, RANDOM }
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final LoadBalancing loadBalancing;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, LoadBalancing loadBalancing) {
+
+        this.replicas = replicas.stream()
+                .map(Replica::new)
+                .toList();
+        this.loadBalancing = loadBalancing;
+
+        var targets = new HashMap<Object, Object>();
+        targets.put(PRIMARY, primary);
+        for (var i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i).dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPinned()) {
+            return PRIMARY;
+        }
+        var replica = selectReplica();
+        return replica < 0 ? PRIMARY : replica;
+    }
+
+    // Index of the replica for the next read, or -1 if none is healthy
+    int selectReplica() {
+        var size = replicas.size();
+        var start = switch (loadBalancing) {
+            case ROUND_ROBIN -> Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+            case RANDOM -> size == 0 ? 0 : ThreadLocalRandom.current().nextInt(size);
+        };
+        for (var i = 0; i < size; i++) {
+            var index = (start + i) % size;
+            if (replicas.get(index).healthy) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // A replica that fails the check gets no reads until it passes one again
+    public void checkReplicas(int timeoutSeconds) {
+        for (var replica : replicas) {
+            try (var connection = replica.dataSource.getConnection()) {
+                replica.healthy = connection.isValid(timeoutSeconds);
+            } catch (SQLException e) {
+                replica.healthy = false;
+            }
+        }
+    }
+
+    public int getHealthyReplicasCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private static class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.datasource;
+
+import java.util.function.Supplier;
+
+// Marks the reads of the current thread as having to see the latest writes, so they go to the primary even in
+// read-only transactions. Set by ReadYourWritesFilter for the requests that follow a write of the same client.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    // Runs the reads on the primary, leaving the thread pinned as it was
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (isPinned()) {
+            return reads.get();
+        }
+        pin();
+        try {
+            return reads.get();
+        } finally {
+            unpin();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+
+// Carries the pin of ReadYourWrites over to the tasks the request hands to an executor, such as the StreamingResponseBody
+// of NewsApiController, written by the async executor of Spring MVC once the request thread (and ReadYourWritesFilter) is done.
+public class ReadYourWritesTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        if (!ReadYourWrites.isPinned()) {
+            return runnable;
+        }
+        return () -> ReadYourWrites.onPrimary(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+}
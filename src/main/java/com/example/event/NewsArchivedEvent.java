@@ -0,0 +1,15 @@
+package com.example.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Published by NewsArchiveService when it has moved news to the archive: they are moved in bulk, without a NewsChangedEvent each.
+@Value
+public class NewsArchivedEvent {
+
+    // The news published before this time are archived
+    LocalDateTime publishedBefore;
+
+    long archived;
+}
@@ -0,0 +1,23 @@
+package com.example.event;
+
+import com.example.model.Category;
+import com.example.model.News;
+import lombok.Value;
+
+import java.util.Set;
+
+// Published by NewsService for every created, updated or deleted news.
+@Value
+public class NewsChangedEvent {
+
+    // ARCHIVED is not published: it is only written to the outbox, by NewsArchiveService
+    public enum Type { CREATED, UPDATED, DELETED, ARCHIVED }
+
+    Type type;
+
+    // The news after the change, or the deleted one
+    News news;
+
+    // The categories whose feeds are affected: the category of the news and, for an update, its previous category
+    Set<Category> categories;
+}
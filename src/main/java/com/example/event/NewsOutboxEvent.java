@@ -0,0 +1,30 @@
+package com.example.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// A committed change of a news, relayed from the outbox. A consumer skips the ids it has seen and the changes whose 'newsVersion' is not newer
+@Data
+@NoArgsConstructor @AllArgsConstructor
+public class NewsOutboxEvent {
+
+    private Long id;
+    private NewsChangedEvent.Type type;
+
+    private Long newsId;
+    // The number of the change among those of the news, in the order they were committed: 1, 2, ...
+    private Long newsVersion;
+    private String title;
+    private String content;
+    private LocalDateTime publishedAt;
+    private String categoryName;
+
+    // The names of the categories whose feeds are affected, see NewsChangedEvent
+    private Set<String> categories;
+
+    private LocalDateTime createdAt;
+}
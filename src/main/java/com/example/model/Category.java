@@ -4,18 +4,26 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Category.CACHE_REGION)
 @NoArgsConstructor @AllArgsConstructor
 @Getter @Setter
 @EqualsAndHashCode(of = "name")
 @ToString
 public class Category {
 
+    // The regions of the second-level cache are sized in 'application.conf'
+    public static final String CACHE_REGION = "categories";
+    public static final String BY_NAME_CACHE_REGION = "categories-by-name";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
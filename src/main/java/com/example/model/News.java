@@ -4,22 +4,29 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "news")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = News.CACHE_REGION)
 @NoArgsConstructor @AllArgsConstructor
 @Getter @Setter
 @EqualsAndHashCode(of = { "title", "publishedAt", "category" })
 @ToString
 public class News {
 
+    public static final String CACHE_REGION = "news";
+
+    // Ids are allocated from a sequence in blocks, so that Hibernate can batch the inserts (see NewsImportService)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "news_seq")
+    @SequenceGenerator(name = "news_seq", sequenceName = "news_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "title")
@@ -50,35 +57,18 @@ public class News {
     }
 
     public String shortView() {
-
-        var sb = new StringBuilder();
-
-        if (getPublishedAt() != null) {
-            sb.append(getPublishedAtShortened());
-            sb.append(" - ");
-        }
-
-        sb.append(getTitle());
-
-        return sb.toString();
+        return shortView(getPublishedAt(), getTitle());
     }
 
     public String getPublishedAtShortened() {
+        return shortenPublishedAt(getPublishedAt());
+    }
 
-        if (getPublishedAt() == null) {
-            return "";
-        }
-
-        var sb = new StringBuilder();
-
-        if (getPublishedAt().toLocalDate().equals(LocalDate.now())) {
-            sb.append(getPublishedAt().toLocalTime().truncatedTo(ChronoUnit.SECONDS));
-        } else if (getPublishedAt().toLocalDate().equals(LocalDate.now().minusDays(1L))) {
-            sb.append("yesterday");
-        } else {
-            sb.append(getPublishedAt().toLocalDate());
-        }
+    public static String shortView(LocalDateTime publishedAt, String title) {
+        return PublishedAtFormatter.SYSTEM.shortView(publishedAt, title);
+    }
 
-        return sb.toString();
+    public static String shortenPublishedAt(LocalDateTime publishedAt) {
+        return PublishedAtFormatter.SYSTEM.format(publishedAt);
     }
 }
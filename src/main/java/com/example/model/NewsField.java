@@ -0,0 +1,41 @@
+package com.example.model;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Fields of a news item which a client of the JSON API can select ('fields=id,title,publishedAt')
+public enum NewsField {
+
+    ID("id"),
+    TITLE("title"),
+    CONTENT("content"),
+    PUBLISHED_AT("publishedAt"),
+    CATEGORY("category");
+
+    private final String name;
+
+    NewsField(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static Set<NewsField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(NewsField.class);
+        }
+        var result = EnumSet.noneOf(NewsField.class);
+        for (var field : fields.split(",")) {
+            var name = field.strip().toLowerCase(Locale.ROOT);
+            result.add(Arrays.stream(values())
+                    .filter(value -> value.name.toLowerCase(Locale.ROOT).equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field '" + field.strip() + "'")));
+        }
+        return result;
+    }
+}
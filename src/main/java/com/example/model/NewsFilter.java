@@ -0,0 +1,68 @@
+package com.example.model;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// The filters and the order of the news feed. Every filter is optional: only those that are set get into the query
+// (see NewsFeedRepositoryImpl), so a new filter is one more field here and one more condition there.
+@Value
+public class NewsFilter {
+
+    public enum Sort { NEWEST, OLDEST }
+
+    // Full-text search terms, null if not searched by
+    String title;
+    String content;
+
+    // Any of these categories, all of them if empty
+    Set<Category> categories;
+
+    // Published within [publishedFrom, publishedBefore), either end may be open
+    LocalDateTime publishedFrom;
+    LocalDateTime publishedBefore;
+
+    Sort sort;
+
+    public NewsFilter(String title, String content, Collection<Category> categories,
+                      LocalDateTime publishedFrom, LocalDateTime publishedBefore, Sort sort) {
+        this.title = title == null || title.isBlank() ? null : title;
+        this.content = content == null || content.isBlank() ? null : content;
+        this.categories = categories == null ? Set.of() : categories.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        this.publishedFrom = publishedFrom;
+        this.publishedBefore = publishedBefore;
+        this.sort = Objects.requireNonNullElse(sort, Sort.NEWEST);
+    }
+
+    public static NewsFilter of(String title, String content, Category category) {
+        return new NewsFilter(title, content, category == null ? null : Set.of(category), null, null, null);
+    }
+
+    // The dates of a form are whole days, both included
+    public static NewsFilter of(String title, String content, Collection<Category> categories,
+                                LocalDate publishedFrom, LocalDate publishedTo, Sort sort) {
+        return new NewsFilter(title, content, categories,
+                publishedFrom == null ? null : publishedFrom.atStartOfDay(),
+                publishedTo == null ? null : publishedTo.plusDays(1).atStartOfDay(),
+                sort);
+    }
+
+    public boolean hasText() {
+        return title != null || content != null;
+    }
+
+    // The category of a feed filtered by nothing but a single category, newest first, or null
+    public Category getOnlyCategory() {
+        if (hasText() || categories.size() != 1 || publishedFrom != null || publishedBefore != null || sort != Sort.NEWEST) {
+            return null;
+        }
+        return categories.iterator().next();
+    }
+}
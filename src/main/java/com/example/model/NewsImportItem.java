@@ -0,0 +1,18 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A news item as it comes from a wire feed: the category is referenced by its name.
+@Data
+@NoArgsConstructor @AllArgsConstructor
+public class NewsImportItem {
+
+    private String title;
+    private String content;
+    private String category;
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class NewsImportResult {
+
+    long received;
+    long imported;
+    long rejected;
+
+    // The reasons of the first rejections, see NewsImportService.MAX_REPORTED_ERRORS
+    List<String> errors;
+
+    long durationMillis;
+
+    public double getItemsPerSecond() {
+        return durationMillis == 0 ? imported : imported * 1_000.0 / durationMillis;
+    }
+}
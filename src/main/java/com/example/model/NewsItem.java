@@ -0,0 +1,16 @@
+package com.example.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Read model of a news item for the JSON API and the export: NewsSummary plus the content, which is null when not requested.
+@Value
+public class NewsItem {
+
+    Long id;
+    String title;
+    String content;
+    LocalDateTime publishedAt;
+    String categoryName;
+}
@@ -0,0 +1,28 @@
+package com.example.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Read model of a news item in the feed: everything the list page shows and nothing else (no content, no managed entities).
+@Value
+public class NewsSummary {
+
+    Long id;
+    String title;
+    LocalDateTime publishedAt;
+    String categoryName;
+
+    public static NewsSummary from(News news) {
+        return new NewsSummary(news.getId(), news.getTitle(), news.getPublishedAt(),
+                news.getCategory() == null ? null : news.getCategory().getName());
+    }
+
+    public String shortView() {
+        return News.shortView(getPublishedAt(), getTitle());
+    }
+
+    public String getPublishedAtShortened() {
+        return News.shortenPublishedAt(getPublishedAt());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A creation or an update of a news accepted by NewsWritePipeline, as it is kept in its journal
+@Data
+@NoArgsConstructor @AllArgsConstructor
+public class NewsWrite {
+
+    public enum Operation { CREATE, UPDATE }
+
+    private String key;
+    private Operation operation;
+
+    // The id of the updated news, null for a creation
+    private Long newsId;
+
+    private String title;
+    private String content;
+    private String category;
+    private LocalDateTime publishedAt;
+
+    public static NewsWrite of(String key, Operation operation, Long newsId, News news) {
+        return new NewsWrite(key, operation, newsId, news.getTitle(), news.getContent(),
+                news.getCategory() == null ? null : news.getCategory().getName(), news.getPublishedAt());
+    }
+}
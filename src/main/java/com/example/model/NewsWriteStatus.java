@@ -0,0 +1,18 @@
+package com.example.model;
+
+import lombok.Value;
+
+@Value
+public class NewsWriteStatus {
+
+    public enum State { PENDING, DONE, FAILED }
+
+    String key;
+    State state;
+
+    // The id of the written news, once it is done
+    Long newsId;
+
+    // Why the write failed
+    String error;
+}
@@ -0,0 +1,109 @@
+package com.example.model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The publication time of a news as the lists show it: the time for today, 'yesterday', otherwise the date.
+// 'Today' and 'yesterday' are computed once a day, when the clock passes midnight, instead of reading the date for every news,
+// and every time and date is formatted once: the times of today are kept until midnight, the dates up to MAX_CACHED_DATES of them.
+// So rendering a list of news reads the clock once per news (a plain read of the milliseconds) and formats nothing new
+// but the title line itself.
+public final class PublishedAtFormatter {
+
+    public static final PublishedAtFormatter SYSTEM = new PublishedAtFormatter(Clock.systemDefaultZone());
+
+    static final String YESTERDAY = "yesterday";
+    static final int MAX_CACHED_DATES = 4096;
+
+    private final Clock clock;
+
+    private volatile Day day;
+    private final Map<LocalDate, String> dates = new ConcurrentHashMap<>();
+
+    public PublishedAtFormatter(Clock clock) {
+        this.clock = clock;
+        this.day = newDay();
+    }
+
+    public String format(LocalDateTime publishedAt) {
+
+        if (publishedAt == null) {
+            return "";
+        }
+
+        var today = currentDay();
+        var date = publishedAt.toLocalDate();
+
+        if (date.equals(today.date)) {
+            return today.time(publishedAt);
+        } else if (date.equals(today.yesterday)) {
+            return YESTERDAY;
+        }
+        return date(date);
+    }
+
+    public String shortView(LocalDateTime publishedAt, String title) {
+        if (publishedAt == null) {
+            return String.valueOf(title);
+        }
+        return format(publishedAt) + " - " + title;
+    }
+
+    private Day currentDay() {
+        var current = day;
+        if (clock.millis() >= current.endMillis) {
+            current = newDay();
+            day = current;
+        }
+        return current;
+    }
+
+    private Day newDay() {
+        var today = LocalDate.now(clock);
+        var endMillis = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new Day(today, today.minusDays(1), endMillis);
+    }
+
+    private String date(LocalDate date) {
+        var formatted = dates.get(date);
+        if (formatted == null) {
+            formatted = date.toString();
+            if (dates.size() >= MAX_CACHED_DATES) {
+                dates.clear();
+            }
+            dates.put(date, formatted);
+        }
+        return formatted;
+    }
+
+    // A day and the times of it formatted so far, by the second of the day
+    private static final class Day {
+
+        private final LocalDate date;
+        private final LocalDate yesterday;
+        private final long endMillis;
+        private final String[] times = new String[24 * 60 * 60];
+
+        Day(LocalDate date, LocalDate yesterday, long endMillis) {
+            this.date = date;
+            this.yesterday = yesterday;
+            this.endMillis = endMillis;
+        }
+
+        // Racy but safe: two threads formatting the same second store equal strings
+        String time(LocalDateTime publishedAt) {
+            var time = publishedAt.toLocalTime();
+            var second = time.toSecondOfDay();
+            var formatted = times[second];
+            if (formatted == null) {
+                formatted = time.truncatedTo(ChronoUnit.SECONDS).toString();
+                times[second] = formatted;
+            }
+            return formatted;
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.example.repository;
 
 import com.example.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    // The id found by name is kept in the query cache, the category itself comes from the second-level cache
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Category.BY_NAME_CACHE_REGION)
+    })
     Optional<Category> findByName(String name);
 }
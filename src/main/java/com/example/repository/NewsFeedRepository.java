@@ -0,0 +1,17 @@
+package com.example.repository;
+
+import com.example.model.NewsFilter;
+import com.example.model.NewsItem;
+import com.example.model.NewsSummary;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface NewsFeedRepository {
+    Window<NewsSummary> findFeed(NewsFilter filter, ScrollPosition position, int limit);
+    List<NewsSummary> searchByTextRanked(NewsFilter filter, int limit);
+    Stream<NewsItem> streamFeed(NewsFilter filter, ScrollPosition position, int limit, boolean withContent);
+    Stream<NewsItem> streamAll(int fetchSize);
+}
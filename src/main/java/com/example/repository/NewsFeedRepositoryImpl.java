@@ -0,0 +1,246 @@
+package com.example.repository;
+
+import com.example.model.Category;
+import com.example.model.NewsFilter;
+import com.example.model.NewsItem;
+import com.example.model.NewsSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// The feed is read as NewsSummary projections (no content, no managed entities), newest (or oldest) first, paged by a keyset on (publishedAt, id).
+// Full-text search goes over the GIN indexes on to_tsvector('simple', title) and to_tsvector('simple', content), see the V2 migration.
+// The queries are built from a NewsFilter: only the conditions that are actually set get into them, so every combination can use the indexes.
+// The news are partitioned by month of published_at (see the V3 migration): newest first, a page only reads the last partitions.
+// The page queries are read-only transactions of their own (they may go to a replica, see ReadWriteRoutingDataSource),
+// so that a page served by NewsFeedCache does not open a transaction at all.
+public class NewsFeedRepositoryImpl implements NewsFeedRepository {
+
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Rows fetched from the server-side cursor per round trip when a feed is streamed
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<NewsSummary> findFeed(NewsFilter filter, ScrollPosition position, int limit) {
+
+        var params = new HashMap<String, Object>();
+        var conditions = conditions(filter, params);
+        conditions.addAll(keysetConditions(filter, position, params));
+
+        var sql = orderedByDate("n.id, n.title, n.published_at, c.name", filter, conditions, params, limit + 1);
+
+        return toWindow(nativeQuery(sql, params), limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NewsSummary> searchByTextRanked(NewsFilter filter, int limit) {
+
+        var params = new HashMap<String, Object>();
+        var conditions = conditions(filter, params);
+
+        if (!filter.getCategories().isEmpty()) {
+            conditions.add("n.category_id in (:categoryIds)");
+            params.put("categoryIds", filter.getCategories().stream().map(Category::getId).toList());
+        }
+
+        var rank = new ArrayList<String>();
+        if (params.containsKey("title")) {
+            // A match in the title weighs more than the same match in the content
+            rank.add("2 * ts_rank(to_tsvector('simple', n.title), to_tsquery('simple', :title))");
+        }
+        if (params.containsKey("content")) {
+            rank.add("ts_rank(to_tsvector('simple', n.content), to_tsquery('simple', :content))");
+        }
+        if (rank.isEmpty()) {
+            rank.add("0");
+        }
+
+        var sql = "select n.id, n.title, n.published_at, c.name from news n join categories c on c.id = n.category_id"
+                + where(conditions)
+                + " order by " + String.join(" + ", rank) + " desc, n.published_at desc, n.id desc"
+                + " limit " + limit;
+
+        return nativeQuery(sql, params);
+    }
+
+    // Rows are read from a forward-only cursor as the stream is consumed, so it must be consumed (and closed) in a transaction.
+    // The content, by far the largest column, is only read when asked for.
+    @Override
+    public Stream<NewsItem> streamFeed(NewsFilter filter, ScrollPosition position, int limit, boolean withContent) {
+
+        var params = new HashMap<String, Object>();
+        var conditions = conditions(filter, params);
+        conditions.addAll(keysetConditions(filter, position, params));
+
+        var columns = "n.id, n.title, " + (withContent ? "n.content" : "null as content") + ", n.published_at, c.name";
+        var sql = orderedByDate(columns, filter, conditions, params, limit);
+
+        var query = entityManager.createNativeQuery(sql)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        params.forEach(query::setParameter);
+
+        return toNewsItems(query.getResultStream());
+    }
+
+    // The whole table in the order of the primary key, read from a forward-only cursor fetchSize rows at a time
+    @Override
+    public Stream<NewsItem> streamAll(int fetchSize) {
+
+        var sql = "select n.id, n.title, n.content, n.published_at, c.name"
+                + " from news n join categories c on c.id = n.category_id"
+                + " order by n.id";
+
+        var query = entityManager.createNativeQuery(sql)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        return toNewsItems(query.getResultStream());
+    }
+
+    // The conditions of the filter but its categories, which depend on the query (see orderedByDate)
+    private static List<String> conditions(NewsFilter filter, Map<String, Object> params) {
+
+        var conditions = new ArrayList<String>();
+
+        var titleQuery = toPrefixQuery(filter.getTitle());
+        if (titleQuery != null) {
+            conditions.add("to_tsvector('simple', n.title) @@ to_tsquery('simple', :title)");
+            params.put("title", titleQuery);
+        }
+
+        var contentQuery = toPrefixQuery(filter.getContent());
+        if (contentQuery != null) {
+            conditions.add("to_tsvector('simple', n.content) @@ to_tsquery('simple', :content)");
+            params.put("content", contentQuery);
+        }
+
+        // Plain ranges of published_at: they bound the index scans and prune the partitions out of the range
+        if (filter.getPublishedFrom() != null) {
+            conditions.add("n.published_at >= :publishedFrom");
+            params.put("publishedFrom", filter.getPublishedFrom());
+        }
+        if (filter.getPublishedBefore() != null) {
+            conditions.add("n.published_at < :publishedBefore");
+            params.put("publishedBefore", filter.getPublishedBefore());
+        }
+
+        return conditions;
+    }
+
+    // The news after the given position in the order of the feed.
+    // The first condition is implied by the second one, but only it lets the planner prune the partitions
+    private static List<String> keysetConditions(NewsFilter filter, ScrollPosition position, Map<String, Object> params) {
+
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            return List.of();
+        }
+
+        params.put("publishedAt", keyset.getKeys().get("publishedAt"));
+        params.put("id", keyset.getKeys().get("id"));
+
+        if (filter.getSort() == NewsFilter.Sort.OLDEST) {
+            return List.of("n.published_at >= :publishedAt", "(n.published_at, n.id) > (:publishedAt, :id)");
+        }
+        return List.of("n.published_at <= :publishedAt", "(n.published_at, n.id) < (:publishedAt, :id)");
+    }
+
+    // The feed in the order of (published_at, id). A feed of several categories is merged from a query per category:
+    // each of them reads news_category_id_published_at_id_idx in order and stops at the limit,
+    // where 'category_id in (...)' would have to read and sort all the news of the categories.
+    private static String orderedByDate(String columns, NewsFilter filter, List<String> conditions, Map<String, Object> params, int limit) {
+
+        var direction = filter.getSort() == NewsFilter.Sort.OLDEST ? "asc" : "desc";
+        var from = " from news n join categories c on c.id = n.category_id";
+        var categories = List.copyOf(filter.getCategories());
+
+        if (categories.size() <= 1) {
+            var all = new ArrayList<>(conditions);
+            if (categories.size() == 1) {
+                all.add("n.category_id = :categoryId");
+                params.put("categoryId", categories.get(0).getId());
+            }
+            return "select " + columns + from + where(all) + orderBy("n", direction) + " limit " + limit;
+        }
+
+        var branches = new ArrayList<String>();
+        for (var i = 0; i < categories.size(); i++) {
+            var branch = new ArrayList<>(conditions);
+            branch.add("n.category_id = :categoryId" + i);
+            params.put("categoryId" + i, categories.get(i).getId());
+            branches.add("(select " + columns + from + where(branch) + orderBy("n", direction) + " limit " + limit + ")");
+        }
+        return "select * from (" + String.join(" union all ", branches) + ") f" + orderBy("f", direction) + " limit " + limit;
+    }
+
+    private static String orderBy(String alias, String direction) {
+        return " order by " + alias + ".published_at " + direction + ", " + alias + ".id " + direction;
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private List<NewsSummary> nativeQuery(String sql, Map<String, Object> params) {
+
+        var query = entityManager.createNativeQuery(sql);
+        params.forEach(query::setParameter);
+
+        return ((List<?>) query.getResultList()).stream()
+                .map(row -> (Object[]) row)
+                .map(row -> new NewsSummary(((Number) row[0]).longValue(), (String) row[1], toLocalDateTime(row[2]), (String) row[3]))
+                .collect(Collectors.toList());
+    }
+
+    private static Stream<NewsItem> toNewsItems(Stream<?> rows) {
+        return rows
+                .map(row -> (Object[]) row)
+                .map(row -> new NewsItem(((Number) row[0]).longValue(), (String) row[1], (String) row[2], toLocalDateTime(row[3]), (String) row[4]));
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    // One more row than the limit is read to know whether there is a next page
+    private static Window<NewsSummary> toWindow(List<NewsSummary> result, int limit) {
+
+        var hasNext = result.size() > limit;
+        var page = hasNext ? result.subList(0, limit) : result;
+
+        return Window.from(page,
+                index -> ScrollPosition.forward(Map.of(
+                        "publishedAt", page.get(index).getPublishedAt(),
+                        "id", page.get(index).getId())),
+                hasNext);
+    }
+
+    // 'Breaking news!' -> 'breaking:* & news:*', so that every word of the term is matched as a word prefix
+    static String toPrefixQuery(String term) {
+        if (term == null || term.isBlank()) {
+            return null;
+        }
+        var query = Arrays.stream(NON_WORD_CHARACTERS.split(term.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+        return query.isEmpty() ? null : query;
+    }
+}
@@ -1,17 +1,17 @@
 package com.example.repository;
 
-import com.example.model.Category;
 import com.example.model.News;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.List;
+import java.util.Optional;
 
-public interface NewsRepository extends JpaRepository<News, Long> {
-    List<News> findAllByTitleLikeIgnoreCaseOrderByPublishedAtDesc(String title);
-    List<News> findAllByContentLikeIgnoreCaseOrderByPublishedAtDesc(String content);
-    List<News> findAllByCategoryOrderByPublishedAtDesc(Category category);
-    List<News> findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseOrderByPublishedAtDesc(String title, String content);
-    List<News> findAllByTitleLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(String title, Category category);
-    List<News> findAllByContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(String content, Category category);
-    List<News> findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(String title, String content, Category category);
+// The category is always rendered along with the news, so it is fetched in the same select.
+// The feed itself is read as projections, see NewsFeedRepository.
+public interface NewsRepository extends JpaRepository<News, Long>, NewsFeedRepository {
+
+    // The primary key is (id, published_at), so this probes every partition of 'news' (see the V3 migration);
+    // the second-level cache of News spares most of these lookups
+    @EntityGraph(attributePaths = "category")
+    Optional<News> findById(Long id);
 }
@@ -0,0 +1,223 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
+import com.example.repository.NewsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The 'news.category-feed.depth' newest news of every category, kept in memory and up to date with the changes of its news
+@Component
+public class CategoryFeed {
+
+    private static final Comparator<NewsSummary> NEWEST_FIRST = Comparator
+            .comparing(NewsSummary::getPublishedAt)
+            .thenComparing(NewsSummary::getId)
+            .reversed();
+
+    private final NewsRepository newsRepository;
+    private final int depth;
+    private final int logSize;
+
+    private final Map<String, Latest> latestByCategory = new ConcurrentHashMap<>();
+
+    // Incremented by every change, so that a load does not join a flight which started before the change
+    private final AtomicLong changes = new AtomicLong();
+
+    // The last changes applied to the lists, oldest first. The log and the lists are changed under logLock
+    private final ArrayDeque<Change> log = new ArrayDeque<>();
+    private final ReentrantLock logLock = new ReentrantLock();
+
+    // The requests that come during the load of a category share it, unless a change came in between
+    private final SingleFlight<Flight, Latest> loads;
+
+    public CategoryFeed(NewsRepository newsRepository,
+                        @Value("${news.category-feed.depth:200}") int depth, @Value("${news.category-feed.log-size:1000}") int logSize,
+                        MeterRegistry meterRegistry, @Value("${news.feed-cache.coalesce-timeout:5s}") Duration coalesceTimeout) {
+        this.newsRepository = newsRepository;
+        this.depth = depth;
+        this.logSize = logSize;
+        this.loads = new SingleFlight<>("categoryFeed", coalesceTimeout, meterRegistry);
+    }
+
+    // Returns null if the page is not within the latest news of the category: it has to be read from the database then
+    public Window<NewsSummary> get(Category category, ScrollPosition position, int limit) {
+
+        if (category == null || category.getName() == null) {
+            return null;
+        }
+
+        var latest = latestByCategory.get(category.getName());
+        if (latest == null) {
+            latest = loads.get(new Flight(changes.get(), category.getName()), () -> load(category));
+        }
+
+        var from = 0;
+        if (position instanceof KeysetScrollPosition keyset && !keyset.isInitial()) {
+            var after = new NewsSummary((Long) keyset.getKeys().get("id"), null,
+                    (LocalDateTime) keyset.getKeys().get("publishedAt"), null);
+            from = latest.indexAfter(after);
+        }
+
+        var to = from + limit;
+        if (to > latest.news().size() && !latest.complete()) {
+            return null;
+        }
+        to = Math.min(to, latest.news().size());
+
+        var page = latest.news().subList(from, to);
+        var hasNext = to < latest.news().size() || !latest.complete();
+
+        return Window.from(page,
+                index -> ScrollPosition.forward(Map.of(
+                        "publishedAt", page.get(index).getPublishedAt(),
+                        "id", page.get(index).getId())),
+                hasNext);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(NewsFeedVersion.EVICTION_ORDER)
+    public void onNewsChanged(NewsChangedEvent event) {
+
+        changes.incrementAndGet();
+
+        var change = Change.of(event);
+        logLock.lock();
+        try {
+            log.addLast(change);
+            if (log.size() > logSize) {
+                log.removeFirst();
+            }
+            for (var categoryName : change.categoryNames()) {
+                latestByCategory.computeIfPresent(categoryName, (name, latest) -> change.applyTo(name, latest, depth));
+            }
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    public void clear() {
+        changes.incrementAndGet();
+        logLock.lock();
+        try {
+            log.clear();
+            latestByCategory.clear();
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    // The replica may lack the last changes: those of the log are applied again, which leaves the others as they are
+    private Latest load(Category category) {
+
+        var window = newsRepository.findFeed(NewsFilter.of(null, null, category), ScrollPosition.keyset(), depth);
+        var news = new ArrayList<>(window.getContent());
+        news.sort(NEWEST_FIRST);
+        var latest = new Latest(Collections.unmodifiableList(news), !window.hasNext());
+
+        logLock.lock();
+        try {
+            for (var change : log) {
+                latest = change.applyTo(category.getName(), latest, depth);
+            }
+            var existing = latestByCategory.putIfAbsent(category.getName(), latest);
+            return existing != null ? existing : latest;
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    private record Flight(long changes, String categoryName) {
+    }
+
+    // A change of a news, as it is applied to the lists of its categories
+    private record Change(NewsChangedEvent.Type type, NewsSummary news, Set<String> categoryNames) {
+
+        static Change of(NewsChangedEvent event) {
+            var news = NewsSummary.from(event.getNews());
+            // An updated news may have moved to another category, so it is removed from the lists of both
+            var categoryNames = new HashSet<String>();
+            for (var category : event.getCategories()) {
+                if (category != null && category.getName() != null) {
+                    categoryNames.add(category.getName());
+                }
+            }
+            if (news.getCategoryName() != null) {
+                categoryNames.add(news.getCategoryName());
+            }
+            return new Change(event.getType(), news, Set.copyOf(categoryNames));
+        }
+
+        Latest applyTo(String categoryName, Latest latest, int depth) {
+            if (type != NewsChangedEvent.Type.CREATED) {
+                latest = latest.without(news.getId());
+            }
+            if (type != NewsChangedEvent.Type.DELETED && categoryName.equals(news.getCategoryName())) {
+                latest = latest.with(news, depth);
+            }
+            return latest;
+        }
+    }
+
+    // Immutable: a change replaces the list of its category
+    private record Latest(List<NewsSummary> news, boolean complete) {
+
+        int indexAfter(NewsSummary position) {
+            var index = Collections.binarySearch(news, position, NEWEST_FIRST);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        Latest without(Long id) {
+            if (news.stream().noneMatch(summary -> Objects.equals(summary.getId(), id))) {
+                return this;
+            }
+            // The list still holds the newest news of the category, just one less of them
+            var remaining = news.stream()
+                    .filter(summary -> !Objects.equals(summary.getId(), id))
+                    .toList();
+            return new Latest(remaining, complete);
+        }
+
+        // The list may hold the news already: loaded after the commit of its change, before the change came
+        Latest with(NewsSummary added, int depth) {
+            var current = without(added.getId());
+            var index = current.indexAfter(added);
+            if (index == current.news.size() && !current.complete) {
+                // Older than all the listed news: there may be unlisted news newer than it
+                return current;
+            }
+            var updated = new ArrayList<NewsSummary>(current.news.size() + 1);
+            updated.addAll(current.news.subList(0, index));
+            updated.add(added);
+            updated.addAll(current.news.subList(index, current.news.size()));
+
+            if (updated.size() > depth) {
+                return new Latest(Collections.unmodifiableList(updated.subList(0, depth)), false);
+            }
+            return new Latest(Collections.unmodifiableList(updated), current.complete);
+        }
+    }
+}
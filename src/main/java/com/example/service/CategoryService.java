@@ -2,28 +2,51 @@ package com.example.service;
 
 import com.example.model.Category;
 import com.example.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
+// Call evictCache() after changing the categories in the database directly: DELETE /actuator/caches leaves them in the second-level cache
 @Service
 @RequiredArgsConstructor
+@Timed("service.calls")
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final EntityManagerFactory entityManagerFactory;
 
+    @Cacheable("categories")
     public List<Category> getAll() {
-        return categoryRepository.findAll();
+        return List.copyOf(categoryRepository.findAll());
     }
 
+    @Cacheable(value = "categoriesById", unless = "#result == null")
     public Category getById(Integer id) {
         return categoryRepository.findById(id)
                 .orElse(null);
     }
-    
+
+    @Cacheable(value = "categoriesByName", unless = "#result == null")
     public Category getByName(String name) {
         return categoryRepository.findByName(name)
                 .orElse(null);
     }
+
+    @Caching(evict = {
+            @CacheEvict(value = "categories", allEntries = true),
+            @CacheEvict(value = "categoriesById", allEntries = true),
+            @CacheEvict(value = "categoriesByName", allEntries = true)
+    })
+    public void evictCache() {
+        var cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Category.class);
+        cache.evictQueryRegion(Category.BY_NAME_CACHE_REGION);
+    }
 }
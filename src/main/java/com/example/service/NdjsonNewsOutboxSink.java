@@ -0,0 +1,115 @@
+package com.example.service;
+
+import com.example.event.NewsOutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Appends the relayed changes to 'news.outbox.file-sink.path', one JSON object per line, skipping the ids among the last RECENT_IDS written
+@Component
+@ConditionalOnProperty(name = "news.outbox.file-sink.path")
+public class NdjsonNewsOutboxSink implements NewsOutboxSink, DisposableBean {
+
+    // More than a batch of NewsOutboxRelay
+    private static final int RECENT_IDS = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // In the order they were written
+    private final Set<Long> sentIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > RECENT_IDS;
+        }
+    });
+
+    public NdjsonNewsOutboxSink(ObjectMapper objectMapper, @Value("${news.outbox.file-sink.path}") Path path) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (Files.exists(path)) {
+            readSentIds(path);
+        }
+        // Not opened with APPEND, which does not go with READ: the writes start at the end instead
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        endTornLine();
+    }
+
+    @Override
+    public void send(List<NewsOutboxEvent> events) throws IOException {
+        lock.lock();
+        try {
+            var lines = new StringBuilder();
+            var written = new LinkedHashSet<Long>();
+            for (var event : events) {
+                if (!sentIds.contains(event.getId()) && written.add(event.getId())) {
+                    lines.append(objectMapper.writeValueAsString(event)).append('\n');
+                }
+            }
+            var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            sentIds.addAll(written);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        channel.close();
+    }
+
+    // So that the next event does not continue the torn line
+    private void endTornLine() throws IOException {
+        if (channel.size() == 0) {
+            return;
+        }
+        var last = ByteBuffer.allocate(1);
+        channel.read(last, channel.size() - 1);
+        if (last.get(0) != '\n') {
+            channel.write(ByteBuffer.wrap(new byte[] { '\n' }));
+        }
+    }
+
+    private void readSentIds(Path path) throws IOException {
+        try (var lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            lines.filter(line -> !line.isBlank())
+                    .mapToLong(this::idOf)
+                    .filter(id -> id != 0)
+                    .forEach(sentIds::add);
+        }
+    }
+
+    // A torn line, written when the application stopped, counts as not written
+    private long idOf(String line) {
+        try {
+            return objectMapper.readTree(line).path("id").asLong(0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
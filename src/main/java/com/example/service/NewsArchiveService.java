@@ -0,0 +1,210 @@
+package com.example.service;
+
+import com.example.event.NewsArchivedEvent;
+import com.example.model.News;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+// Creates the coming monthly partitions of 'news' (see the V3 migration), moves the news older than 'news.archive.after' to 'news_archive' and drops the emptied partitions
+@Service
+@RequiredArgsConstructor
+@Timed("service.calls")
+public class NewsArchiveService {
+
+    private static final String PARTITION_PREFIX = "news_p";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    static final String MAINTENANCE_LOCK = "news_archive";
+
+    private static final String MOVE_TO_ARCHIVE = """
+            with moved as (
+                delete from news
+                where (id, published_at) in (
+                    select id, published_at from news where published_at < ? order by published_at limit ?)
+                returning id, title, content, published_at, category_id)
+            insert into news_archive (id, title, content, published_at, category_id)
+            select id, title, content, published_at, category_id from moved""";
+
+    // The same, also writing the changes that NewsOutbox would write, without the content
+    private static final String MOVE_TO_ARCHIVE_WITH_OUTBOX = """
+            with moved as (
+                delete from news
+                where (id, published_at) in (
+                    select id, published_at from news where published_at < ? order by published_at limit ?)
+                returning id, title, content, published_at, category_id),
+            archived as (
+                insert into news_archive (id, title, content, published_at, category_id)
+                select id, title, content, published_at, category_id from moved),
+            versions as (
+                insert into news_outbox_versions (news_id, version)
+                select id, 1 from moved
+                on conflict (news_id) do update set version = news_outbox_versions.version + 1
+                returning news_id, version)
+            insert into news_outbox (event_type, news_id, payload)
+            select 'ARCHIVED', m.id, jsonb_build_object(
+                       'type', 'ARCHIVED', 'newsId', m.id, 'newsVersion', v.version, 'title', m.title,
+                       'publishedAt', m.published_at, 'categoryName', c.name,
+                       'categories', case when c.name is null then '[]'::jsonb else jsonb_build_array(c.name) end)
+            from moved m
+            join versions v on v.news_id = m.id
+            left join categories c on c.id = m.category_id
+            order by m.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NewsFeedCache newsFeedCache;
+    private final CategoryFeed categoryFeed;
+    private final NewsFeedVersion newsFeedVersion;
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${news.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${news.archive.after:365d}")
+    private Duration archiveAfter;
+
+    @Value("${news.archive.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${news.archive.lock-timeout:5s}")
+    private Duration lockTimeout;
+
+    @Value("${news.outbox.enabled:true}")
+    private boolean outboxEnabled;
+
+    // Run by the instance which gets the advisory lock, held by a connection of its own as the batches commit one by one
+    @Scheduled(cron = "${news.archive.cron:0 30 3 * * *}")
+    public void maintain() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "select pg_try_advisory_lock(hashtext(?))")) {
+                meterRegistry.counter("service.archiveNews.skippedRuns").increment();
+                return null;
+            }
+            try {
+                // The archiving does not depend on the new partitions: it runs even if one of them cannot be created
+                try {
+                    createPartitions();
+                } finally {
+                    archive(LocalDateTime.now().minus(archiveAfter));
+                }
+            } finally {
+                advisoryLock(connection, "select pg_advisory_unlock(hashtext(?))");
+            }
+            return null;
+        });
+    }
+
+    public void createPartitions() {
+        var month = YearMonth.now();
+        for (var i = 0; i <= monthsAhead; i++) {
+            jdbcTemplate.queryForList("select create_news_partition(?)", month.plusMonths(i).atDay(1));
+        }
+
+        // The months of the news left in news_default get partitions as well, but for those the archiving is about to move
+        var pastMonths = jdbcTemplate.queryForList("""
+                select distinct date_trunc('month', published_at)::date from news_default
+                where published_at >= ? and published_at < ?""",
+                LocalDate.class, LocalDateTime.now().minus(archiveAfter), month.atDay(1));
+        for (var pastMonth : pastMonths) {
+            jdbcTemplate.queryForList("select create_news_partition(?)", pastMonth);
+        }
+    }
+
+    // Returns the number of archived news
+    public long archive(LocalDateTime publishedBefore) {
+
+        var moveToArchive = outboxEnabled ? MOVE_TO_ARCHIVE_WITH_OUTBOX : MOVE_TO_ARCHIVE;
+        long archived = 0;
+        int moved;
+        do {
+            // Either statement counts one row per moved news
+            moved = Objects.requireNonNull(transactionTemplate.execute(status ->
+                    jdbcTemplate.update(moveToArchive, publishedBefore, batchSize)));
+            archived += moved;
+        } while (moved == batchSize);
+
+        dropPartitionsBefore(YearMonth.from(publishedBefore));
+
+        if (archived > 0) {
+            // Old news are only on the last pages, but any cached page or ETag may include them.
+            // They are moved behind the back of Hibernate, so its second-level cache would still find them by id
+            entityManagerFactory.getCache().evict(News.class);
+            newsFeedCache.clear();
+            categoryFeed.clear();
+            eventPublisher.publishEvent(new NewsArchivedEvent(publishedBefore, archived));
+            newsFeedVersion.increment();
+        }
+        meterRegistry.counter("service.archiveNews.items").increment(archived);
+
+        return archived;
+    }
+
+    // A lock not granted within 'news.archive.lock-timeout' leaves the partition to a later run, not to queue the feed behind it
+    private void dropPartitionsBefore(YearMonth month) {
+        var partitions = jdbcTemplate.queryForList("""
+                select c.relname from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                join pg_class p on p.oid = i.inhparent
+                where p.relname = 'news' and c.relkind in ('r', 'p')""", String.class);
+
+        for (var partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            var partitionMonth = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_MONTH);
+            if (!partitionMonth.isBefore(month)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("set local lock_timeout = " + lockTimeout.toMillis());
+                    jdbcTemplate.execute("lock table only news in access exclusive mode");
+                    jdbcTemplate.execute("lock table " + partition + " in access exclusive mode");
+                    var isEmpty = jdbcTemplate.queryForObject("select not exists (select 1 from " + partition + ")", Boolean.class);
+                    if (Boolean.TRUE.equals(isEmpty)) {
+                        jdbcTemplate.execute("drop table " + partition);
+                    }
+                });
+            } catch (DataAccessException e) {
+                if (!isLockTimeout(e)) {
+                    throw e;
+                }
+                meterRegistry.counter("service.archiveNews.skippedDrops").increment();
+            }
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (var statement = connection.prepareStatement(sql)) {
+            statement.setString(1, MAINTENANCE_LOCK);
+            try (var resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    // lock_not_available, which the exception translation of Spring leaves uncategorized
+    private static boolean isLockTimeout(DataAccessException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException && "55P03".equals(sqlException.getSQLState());
+    }
+}
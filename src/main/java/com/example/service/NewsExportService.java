@@ -0,0 +1,114 @@
+package com.example.service;
+
+import com.example.model.NewsItem;
+import com.example.repository.NewsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+
+// Export of the whole news table for the downstream analytics. The rows come from a forward-only cursor,
+// 'news.export.chunk-size' at a time, and every chunk is written and flushed before the next one is fetched,
+// so the memory used does not depend on the size of the table.
+@Service
+@RequiredArgsConstructor
+@Timed("service.calls")
+public class NewsExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String CSV_HEADER = "id,title,content,published_at,category";
+
+    private final NewsRepository newsRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${news.export.chunk-size:1000}")
+    private int chunkSize;
+
+    // Returns the number of exported news
+    @Timed("service.exportNews")
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream output) throws IOException {
+        try (var news = newsRepository.streamAll(chunkSize)) {
+            return switch (format) {
+                case NDJSON -> writeNdjson(news.iterator(), output);
+                case CSV -> writeCsv(news.iterator(), output);
+            };
+        }
+    }
+
+    private long writeNdjson(Iterator<NewsItem> news, OutputStream output) throws IOException {
+        long count = 0;
+        try (var writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(nonClosing(output))) {
+            while (news.hasNext()) {
+                writer.write(news.next());
+                if (++count % chunkSize == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        if (count > 0) {
+            output.write('\n');
+        }
+        output.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<NewsItem> news, OutputStream output) throws IOException {
+        long count = 0;
+        var writer = new BufferedWriter(new OutputStreamWriter(nonClosing(output), StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (news.hasNext()) {
+            var item = news.next();
+            writer.write(String.valueOf(item.getId()));
+            writer.write(',');
+            writer.write(csv(item.getTitle()));
+            writer.write(',');
+            writer.write(csv(item.getContent()));
+            writer.write(',');
+            writer.write(item.getPublishedAt() == null ? "" : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(item.getPublishedAt()));
+            writer.write(',');
+            writer.write(csv(item.getCategoryName()));
+            writer.write("\r\n");
+            if (++count % chunkSize == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180: a value with a separator, a quote or a line break is quoted, and its quotes are doubled
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // The output belongs to the caller, which may still have to finish it (e.g. a gzip trailer)
+    private static OutputStream nonClosing(OutputStream output) {
+        return new FilterOutputStream(output) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Pages of NewsService.getAllByParams. A change evicts, after its commit, the pages of its categories and those not filtered by category
+@Component
+public class NewsFeedCache {
+
+    public static final String CACHE_NAME = "newsFeed";
+
+    private final Cache cache;
+    private final SingleFlight<Flight, Window<NewsSummary>> loads;
+
+    // Incremented by every eviction, before the pages are removed
+    private final AtomicLong generation = new AtomicLong();
+
+    public NewsFeedCache(CacheManager cacheManager, MeterRegistry meterRegistry,
+                         @Value("${news.feed-cache.coalesce-timeout:5s}") Duration coalesceTimeout) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache '" + CACHE_NAME + "' is not configured");
+        this.loads = new SingleFlight<>(CACHE_NAME, coalesceTimeout, meterRegistry);
+    }
+
+    // Concurrent misses of the same key share a single query, unless an eviction came in between
+    public Window<NewsSummary> get(Key key, Supplier<Window<NewsSummary>> loader) {
+        var cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+        var generationBefore = generation.get();
+        return loads.get(new Flight(generationBefore, key), () -> {
+            // Loaded by a flight which has just ended
+            var loadedMeanwhile = getCached(key);
+            if (loadedMeanwhile != null) {
+                return loadedMeanwhile;
+            }
+            var loaded = loader.get();
+            if (generation.get() == generationBefore) {
+                cache.putIfAbsent(key, loaded);
+                // Evicted between the check and the put
+                if (generation.get() != generationBefore) {
+                    cache.evict(key);
+                }
+            }
+            return loaded;
+        });
+    }
+
+    // The categories of the changes are collected until the commit of their transaction (at once without a transaction)
+    @EventListener
+    @Order(NewsFeedVersion.EVICTION_ORDER)
+    public void onNewsChanged(NewsChangedEvent event) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(event.getCategories());
+            return;
+        }
+
+        var eviction = (PendingEviction) TransactionSynchronizationManager.getResource(this);
+        if (eviction == null) {
+            eviction = new PendingEviction();
+            TransactionSynchronizationManager.bindResource(this, eviction);
+            TransactionSynchronizationManager.registerSynchronization(eviction);
+        }
+        eviction.categoryNames.addAll(namesOf(event.getCategories()));
+    }
+
+    public void evict(Set<Category> categories) {
+        evictByNames(namesOf(categories));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private void evictByNames(Set<String> categoryNames) {
+        generation.incrementAndGet();
+        nativeCache().keySet().removeIf(key ->
+                key instanceof Key feedKey && (feedKey.categories().isEmpty() || !Collections.disjoint(feedKey.categories(), categoryNames)));
+    }
+
+    // A news without category evicts only the pages not filtered by category
+    private static Set<String> namesOf(Set<Category> categories) {
+        return categories.stream()
+                .filter(Objects::nonNull)
+                .map(Category::getName)
+                .collect(Collectors.toSet());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Window<NewsSummary> getCached(Key key) {
+        var cached = cache.get(key);
+        return cached != null ? (Window<NewsSummary>) cached.get() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> nativeCache() {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).asMap();
+    }
+
+    private class PendingEviction implements TransactionSynchronization {
+
+        private final Set<String> categoryNames = new HashSet<>();
+
+        @Override
+        public int getOrder() {
+            return NewsFeedVersion.EVICTION_ORDER;
+        }
+
+        @Override
+        public void afterCommit() {
+            evictByNames(categoryNames);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(NewsFeedCache.this);
+        }
+    }
+
+    private record Flight(long generation, Key key) {
+    }
+
+    public record Key(String title, String content, Set<String> categories,
+                      LocalDateTime publishedFrom, LocalDateTime publishedBefore, NewsFilter.Sort sort, ScrollPosition position) {
+
+        // Full-text search ignores the case and everything around the words, so 'News ' and 'news' are the same query
+        public static Key of(NewsFilter filter, ScrollPosition position) {
+            // A category that was not found has no name, which is kept as null
+            var categories = Collections.unmodifiableSet(filter.getCategories().stream()
+                    .map(Category::getName)
+                    .collect(Collectors.toSet()));
+            return new Key(normalize(filter.getTitle()), normalize(filter.getContent()), categories,
+                    filter.getPublishedFrom(), filter.getPublishedBefore(), filter.getSort(), position);
+        }
+
+        private static String normalize(String term) {
+            if (term == null || term.isBlank()) {
+                return null;
+            }
+            return term.strip().toLowerCase(Locale.ROOT);
+        }
+    }
+}
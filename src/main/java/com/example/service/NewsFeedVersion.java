@@ -0,0 +1,51 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Version of the news pages for HTTP conditional requests, and the day, as the pages show 'yesterday' etc.
+@Component
+public class NewsFeedVersion {
+
+    // The order of the listeners of NewsChangedEvent which evict the pages or the news kept in memory
+    public static final int EVICTION_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    // Starts at the start time, so that a restarted instance does not reuse the ETags it gave before
+    private final AtomicReference<Version> current = new AtomicReference<>(
+            new Version(System.currentTimeMillis(), System.currentTimeMillis()));
+
+    public Version current() {
+        return current.get();
+    }
+
+    // After the listeners in EVICTION_ORDER: a request that gets the new version does not get a page kept from before
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onNewsChanged(NewsChangedEvent event) {
+        increment();
+    }
+
+    // For the changes made without NewsChangedEvent (see NewsArchiveService), once the caches are evicted
+    public void increment() {
+        current.updateAndGet(version -> new Version(version.number() + 1, System.currentTimeMillis()));
+    }
+
+    public record Version(long number, long changedAt) {
+
+        public String getETag() {
+            return "\"" + number + "-" + LocalDate.now() + "\"";
+        }
+
+        public long getLastModified() {
+            var startOfToday = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return Math.max(changedAt, startOfToday);
+        }
+    }
+}
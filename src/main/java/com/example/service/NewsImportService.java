@@ -0,0 +1,146 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.News;
+import com.example.model.NewsImportItem;
+import com.example.model.NewsImportResult;
+import com.example.repository.NewsRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Bulk import of news: the items are validated one by one and persisted in batches of 'news.import.batch-size',
+// each batch in its own transaction. A batch the database refuses is rolled back alone: its items are reported as rejected,
+// and the import goes on with the next batch, the batches before it staying committed. Ids come from the pooled 'news_seq' sequence, so Hibernate sends the inserts
+// of a batch as JDBC batches of 'hibernate.jdbc.batch_size'.
+@Service
+@RequiredArgsConstructor
+@Timed("service.calls")
+public class NewsImportService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final NewsRepository newsRepository;
+    private final CategoryService categoryService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${news.import.batch-size:500}")
+    private int batchSize;
+
+    public NewsImportResult importNews(Iterator<NewsImportItem> items) {
+
+        var sample = Timer.start(meterRegistry);
+        var startedAt = System.currentTimeMillis();
+
+        long received = 0;
+        long imported = 0;
+        var errors = new ArrayList<String>();
+
+        var batch = new ArrayList<News>(batchSize);
+        // The numbers of the items of the batch, to report them if it fails
+        var batchItems = new ArrayList<Long>(batchSize);
+
+        while (true) {
+
+            NewsImportItem item;
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+                item = items.next();
+            } catch (RuntimeException e) {
+                // Malformed input: what has been read so far is still imported
+                reject(errors, received + 1, "the item could not be read, the import is stopped: " + e.getMessage());
+                break;
+            }
+            received++;
+
+            var news = toNews(item);
+            var violations = validator.validate(news);
+            if (!violations.isEmpty()) {
+                reject(errors, received, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            batch.add(news);
+            batchItems.add(received);
+            if (batch.size() >= batchSize) {
+                imported += persist(batch, batchItems, errors);
+                batch.clear();
+                batchItems.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            imported += persist(batch, batchItems, errors);
+        }
+
+        var rejected = received - imported;
+
+        sample.stop(meterRegistry.timer("service.importNews"));
+        meterRegistry.counter("service.importNews.items", "result", "imported").increment(imported);
+        meterRegistry.counter("service.importNews.items", "result", "rejected").increment(rejected);
+
+        return new NewsImportResult(received, imported, rejected, errors, System.currentTimeMillis() - startedAt);
+    }
+
+    private News toNews(NewsImportItem item) {
+        var category = item.getCategory() == null ? null : categoryService.getByName(item.getCategory());
+        return new News(null, item.getTitle(), item.getContent(), item.getPublishedAt(), category);
+    }
+
+    // Returns the number of persisted news: all of the batch, or none of it
+    private int persist(List<News> batch, List<Long> batchItems, List<String> errors) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // The imported news are not put into the second-level cache, they would only push the news being read out of it
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                newsRepository.saveAll(batch);
+                entityManager.flush();
+                entityManager.clear();
+                for (var news : batch) {
+                    eventPublisher.publishEvent(new NewsChangedEvent(NewsChangedEvent.Type.CREATED, news, Set.of(news.getCategory())));
+                }
+            });
+        } catch (DataAccessException | PersistenceException e) {
+            for (var itemNumber : batchItems) {
+                reject(errors, itemNumber, "its batch of " + batch.size() + " items could not be saved and is rolled back: " + e.getMessage());
+            }
+            return 0;
+        }
+        return batch.size();
+    }
+
+    private static void reject(List<String> errors, long itemNumber, String reason) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("item " + itemNumber + ": " + reason);
+        }
+    }
+}
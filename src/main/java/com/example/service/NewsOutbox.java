@@ -0,0 +1,52 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.event.NewsOutboxEvent;
+import com.example.model.Category;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Writes every change of a news to 'news_outbox' in its transaction, numbered among those of the news (see the V9 migration)
+@Component
+@ConditionalOnProperty(name = "news.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class NewsOutbox {
+
+    private static final String INSERT = "insert into news_outbox (event_type, news_id, payload) values (?, ?, cast(? as jsonb))";
+
+    private static final String NEXT_VERSION = """
+            insert into news_outbox_versions (news_id, version) values (?, 1)
+            on conflict (news_id) do update set version = news_outbox_versions.version + 1
+            returning version""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Not without a transaction: there would be nothing to commit the event with
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onNewsChanged(NewsChangedEvent event) throws JsonProcessingException {
+
+        var news = event.getNews();
+        var categories = event.getCategories().stream()
+                .map(Category::getName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        var newsVersion = jdbcTemplate.queryForObject(NEXT_VERSION, Long.class, news.getId());
+
+        // The id and the time are those of the row
+        var payload = new NewsOutboxEvent(null, event.getType(), news.getId(), newsVersion, news.getTitle(), news.getContent(),
+                news.getPublishedAt(), news.getCategory() == null ? null : news.getCategory().getName(), categories, null);
+
+        jdbcTemplate.update(INSERT, event.getType().name(), news.getId(), objectMapper.writeValueAsString(payload));
+    }
+}
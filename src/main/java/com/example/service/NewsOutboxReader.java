@@ -0,0 +1,85 @@
+package com.example.service;
+
+import com.example.event.NewsOutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Reads the committed changes of the outbox by windows of transactions (see the V8 migration), from an offset kept by the consumer
+@Component
+@ConditionalOnProperty(name = "news.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class NewsOutboxReader {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public NewsOutboxReader(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // The offset past the changes committed so far: the changes of the transactions still running are read once they commit
+    public Offset latest() {
+        var horizon = horizon();
+        return new Offset(0, horizon, horizon);
+    }
+
+    // At most 'limit' of the next changes, and the offset past them
+    public Batch next(Offset offset, int limit) {
+
+        var events = read(offset, limit);
+        if (events.isEmpty()) {
+            // The window is read: the next one ends at the oldest transaction still running (which may be the reader's)
+            var horizon = horizon();
+            if (horizon <= offset.windowTo()) {
+                return new Batch(events, offset);
+            }
+            offset = new Offset(0, offset.windowTo(), horizon);
+            events = read(offset, limit);
+        }
+
+        if (!events.isEmpty()) {
+            offset = new Offset(events.get(events.size() - 1).getId(), offset.windowFrom(), offset.windowTo());
+        }
+        return new Batch(events, offset);
+    }
+
+    private long horizon() {
+        return jdbcTemplate.queryForObject("select pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+    }
+
+    // The next changes of the window, after its last read id
+    private List<NewsOutboxEvent> read(Offset offset, int limit) {
+        return jdbcTemplate.query("""
+                        select id, payload, created_at from news_outbox
+                        where xid >= ? and xid < ? and id > ?
+                        order by id
+                        limit ?""",
+                (resultSet, rowNum) -> toEvent(resultSet.getLong("id"), resultSet.getString("payload"),
+                        resultSet.getObject("created_at", LocalDateTime.class)),
+                offset.windowFrom(), offset.windowTo(), offset.lastId(), limit);
+    }
+
+    private NewsOutboxEvent toEvent(long id, String payload, LocalDateTime createdAt) {
+        try {
+            var event = objectMapper.readValue(payload, NewsOutboxEvent.class);
+            event.setId(id);
+            event.setCreatedAt(createdAt);
+            return event;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable news outbox event " + id, e);
+        }
+    }
+
+    // The changes of the transactions before 'windowFrom' are read, those of the window up to 'lastId'
+    public record Offset(long lastId, long windowFrom, long windowTo) {
+    }
+
+    public record Batch(List<NewsOutboxEvent> events, Offset offset) {
+    }
+}
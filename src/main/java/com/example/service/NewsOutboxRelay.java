@@ -0,0 +1,114 @@
+package com.example.service;
+
+import com.example.event.NewsOutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+// Relays the changes of the outbox to the listeners of NewsOutboxEvent, in the relaying instance only, and to every NewsOutboxSink.
+// A batch moves the offset of the relay under its lock, so that no other instance relays it; one that throws is relayed again.
+@Service
+@ConditionalOnProperty(name = "news.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class NewsOutboxRelay {
+
+    static final String CONSUMER = "relay";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NewsOutboxReader reader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<NewsOutboxSink> sinks;
+    private final Counter relayedCounter;
+
+    private final int batchSize;
+    private final Duration retention;
+
+    public NewsOutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, NewsOutboxReader reader,
+                           ApplicationEventPublisher eventPublisher, ObjectProvider<NewsOutboxSink> sinks, MeterRegistry meterRegistry,
+                           @Value("${news.outbox.batch-size:500}") int batchSize,
+                           @Value("${news.outbox.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.reader = reader;
+        this.eventPublisher = eventPublisher;
+        this.sinks = sinks;
+        this.relayedCounter = meterRegistry.counter("news.outbox.relayed");
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    // Returns the number of relayed changes
+    @Scheduled(fixedDelayString = "${news.outbox.poll-interval:PT1S}")
+    public long relay() {
+        long relayed = 0;
+        int batch;
+        do {
+            batch = Objects.requireNonNull(transactionTemplate.execute(status -> relayBatch()));
+            relayed += batch;
+        } while (batch == batchSize);
+        return relayed;
+    }
+
+    // The relayed changes are kept for 'news.outbox.retention', for the consumers that replay them
+    @Scheduled(cron = "${news.outbox.cleanup-cron:0 15 4 * * *}")
+    public void deleteRelayed() {
+        jdbcTemplate.update("""
+                delete from news_outbox o
+                using news_outbox_offsets f
+                where f.consumer = ? and o.created_at < ?
+                  and (o.xid < f.window_from or (o.xid < f.window_to and o.id <= f.last_id))""",
+                CONSUMER, LocalDateTime.now().minus(retention));
+    }
+
+    private int relayBatch() {
+
+        var offset = jdbcTemplate.queryForObject(
+                "select last_id, window_from, window_to from news_outbox_offsets where consumer = ? for update",
+                (resultSet, rowNum) -> new NewsOutboxReader.Offset(
+                        resultSet.getLong("last_id"), resultSet.getLong("window_from"), resultSet.getLong("window_to")),
+                CONSUMER);
+
+        var batch = reader.next(offset, batchSize);
+        var events = batch.events();
+        if (events.isEmpty() && batch.offset().equals(offset)) {
+            return 0;
+        }
+
+        if (!events.isEmpty()) {
+            events.forEach(eventPublisher::publishEvent);
+            send(events);
+            relayedCounter.increment(events.size());
+        }
+
+        offset = batch.offset();
+        jdbcTemplate.update("update news_outbox_offsets set last_id = ?, window_from = ?, window_to = ? where consumer = ?",
+                offset.lastId(), offset.windowFrom(), offset.windowTo(), CONSUMER);
+
+        return events.size();
+    }
+
+    private void send(List<NewsOutboxEvent> events) {
+        for (var sink : sinks) {
+            try {
+                sink.send(events);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("The news outbox sink " + sink.getClass().getSimpleName() + " failed", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.example.service;
+
+import com.example.event.NewsOutboxEvent;
+
+import java.util.List;
+
+// Destination of the relayed changes outside of the application (a broker, a search index...), which may get a batch again
+public interface NewsOutboxSink {
+
+    void send(List<NewsOutboxEvent> events) throws Exception;
+}
@@ -1,89 +1,119 @@
 package com.example.service;
 
+import com.example.event.NewsChangedEvent;
 import com.example.exception.NewsNotFoundException;
 import com.example.model.Category;
 import com.example.model.News;
+import com.example.model.NewsFilter;
+import com.example.model.NewsItem;
+import com.example.model.NewsSummary;
 import com.example.repository.NewsRepository;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed("service.calls")
 public class NewsService {
 
+    public static final int PAGE_SIZE = 20;
+
     private final NewsRepository newsRepository;
+    private final NewsFeedCache newsFeedCache;
+    private final CategoryFeed categoryFeed;
+    private final ApplicationEventPublisher eventPublisher;
 
     private MeterRegistry meterRegistry;
 
-    private static final AtomicInteger GET_ALL_BY_PARAMS_REQUESTS_COUNTER = new AtomicInteger();
-
     @Autowired
     public void setMeterRegistry(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
-        this.meterRegistry.gauge("getAllByParamsRequestsCounter", GET_ALL_BY_PARAMS_REQUESTS_COUNTER);
     }
 
+    @Transactional(readOnly = true)
     public News getById(Long id) {
         return newsRepository.findById(id)
                 .orElse(null);
     }
 
-    public List<News> getAll() {
-        return newsRepository.findAll();
+    public Window<NewsSummary> getAllByParams(String title, String content, Category category, ScrollPosition position) {
+        return getAllByParams(NewsFilter.of(title, content, category), position);
     }
 
-    @Timed("service.getAllByParams")
-    public List<News> getAllByParams(String title, String content, Category category) {
+    // Timed by hand rather than with @Timed, so that every combination of the filters ('filter' tag: none, title, title+category, ...)
+    // gets its own latency histogram and distribution of the page sizes
+    public Window<NewsSummary> getAllByParams(NewsFilter filter, ScrollPosition position) {
+
+        var filterTag = filterTag(filter);
+        var sample = Timer.start(meterRegistry);
+
+        var page = Objects.requireNonNullElse(position, ScrollPosition.keyset());
+
+        try {
+            Window<NewsSummary> news = null;
+            // The first pages of a category come from its latest news, kept in memory
+            var onlyCategory = filter.getOnlyCategory();
+            if (onlyCategory != null) {
+                news = categoryFeed.get(onlyCategory, page, PAGE_SIZE);
+            }
+            if (news == null) {
+                news = newsFeedCache.get(NewsFeedCache.Key.of(filter, page), () -> newsRepository.findFeed(filter, page, PAGE_SIZE));
+            }
+            meterRegistry.summary("service.getAllByParams.results", "filter", filterTag).record(news.size());
+            return news;
+        } finally {
+            sample.stop(meterRegistry.timer("service.getAllByParams", "filter", filterTag));
+        }
+    }
 
-        GET_ALL_BY_PARAMS_REQUESTS_COUNTER.incrementAndGet();
+    // Without search terms there is no relevance: the first page of the feed is returned then
+    @Timed("service.searchByRelevance")
+    @Transactional(readOnly = true)
+    public List<NewsSummary> searchByRelevance(NewsFilter filter) {
 
-        List<News> result;
+        if (!filter.hasText()) {
+            return getAllByParams(filter, null).getContent();
+        }
 
-        var titleIsEmpty = Objects.requireNonNullElse(title, "").isEmpty();
-        var contentIsEmpty = Objects.requireNonNullElse(content, "").isEmpty();
-        var categoryIsEmpty = category == null;
+        return newsRepository.searchByTextRanked(filter, PAGE_SIZE);
+    }
 
-        if (!titleIsEmpty) {
-            title = "%" + title + "%";
-        }
-        if (!contentIsEmpty) {
-            content = "%" + content + "%";
-        }
+    // The same filters as getAllByParams, but the rows are handed to the reader as they come from the database,
+    // within a read-only transaction, instead of being collected into a page (and cached)
+    @Timed("service.streamByParams")
+    @Transactional(readOnly = true)
+    public <R> R streamByParams(NewsFilter filter, ScrollPosition position, int limit,
+                                boolean withContent, Function<Stream<NewsItem>, R> reader) {
 
-        if (titleIsEmpty && contentIsEmpty && categoryIsEmpty) {
-            result = newsRepository.findAll();
-        } else if (!titleIsEmpty && !contentIsEmpty && !categoryIsEmpty) {
-            result = newsRepository.findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(title, content, category);
-        } else if (!titleIsEmpty && !contentIsEmpty) {
-            result = newsRepository.findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseOrderByPublishedAtDesc(title, content);
-        } else if (!titleIsEmpty && !categoryIsEmpty) {
-            result = newsRepository.findAllByTitleLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(title, category);
-        } else if (!contentIsEmpty && !categoryIsEmpty) {
-            result = newsRepository.findAllByContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(content, category);
-        } else if (!titleIsEmpty) {
-            result = newsRepository.findAllByTitleLikeIgnoreCaseOrderByPublishedAtDesc(title);
-        } else if (!contentIsEmpty) {
-            result = newsRepository.findAllByContentLikeIgnoreCaseOrderByPublishedAtDesc(content);
-        } else if (!categoryIsEmpty) {
-            result = newsRepository.findAllByCategoryOrderByPublishedAtDesc(category);
-        } else {
-            result = Collections.emptyList();
-        }
+        var page = Objects.requireNonNullElse(position, ScrollPosition.keyset());
 
-        return result;
+        try (var news = newsRepository.streamFeed(filter, page, limit, withContent)) {
+            return reader.apply(news);
+        }
     }
 
+    @Transactional
     public News create(News news) {
-        return newsRepository.save(news);
+        news = newsRepository.save(news);
+        eventPublisher.publishEvent(new NewsChangedEvent(NewsChangedEvent.Type.CREATED, news, categoriesOf(news.getCategory())));
+        return news;
     }
 
     @Transactional
@@ -92,14 +122,47 @@ public class NewsService {
         if (newsExisted == null) {
             throw new NewsNotFoundException(id);
         }
+        var previousCategory = newsExisted.getCategory();
         news.setId(id);
         if (news.getPublishedAt() == null) {
             news.setPublishedAt(newsExisted.getPublishedAt());
         }
-        return newsRepository.save(news);
+        news = newsRepository.save(news);
+        eventPublisher.publishEvent(new NewsChangedEvent(NewsChangedEvent.Type.UPDATED, news, categoriesOf(news.getCategory(), previousCategory)));
+        return news;
     }
 
+    @Transactional
     public void deleteById(Long id) {
+        var newsExisted = getById(id);
         newsRepository.deleteById(id);
+        if (newsExisted != null) {
+            eventPublisher.publishEvent(new NewsChangedEvent(NewsChangedEvent.Type.DELETED, newsExisted, categoriesOf(newsExisted.getCategory())));
+        }
+    }
+
+    static String filterTag(NewsFilter filter) {
+        var filters = new StringJoiner("+").setEmptyValue("none");
+        if (filter.getTitle() != null) {
+            filters.add("title");
+        }
+        if (filter.getContent() != null) {
+            filters.add("content");
+        }
+        if (filter.getCategories().size() == 1) {
+            filters.add("category");
+        } else if (filter.getCategories().size() > 1) {
+            filters.add("categories");
+        }
+        if (filter.getPublishedFrom() != null || filter.getPublishedBefore() != null) {
+            filters.add("dates");
+        }
+        return filters.toString();
+    }
+
+    private static Set<Category> categoriesOf(Category... categories) {
+        return Arrays.stream(categories)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 }
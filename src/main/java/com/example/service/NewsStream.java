@@ -0,0 +1,301 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.NewsSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Pushes the created and updated news to the subscribers of the news stream (Server-Sent Events): those of all the instances
+// with the outbox ('news.outbox.enabled'), only those of this one without it. The last ones are replayed to a reconnecting client.
+@Service
+public class NewsStream implements DisposableBean {
+
+    public static final String RESET_EVENT = "reset";
+
+    private final int replaySize;
+    private final int queueSize;
+    private final int maxSubscribers;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("news-stream-", 0).factory());
+
+    // The sequence starts from the clock, so ids seen before a restart are never mistaken for the new ones
+    private long sequence = System.currentTimeMillis();
+    private final Entry[] replay;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Counter disconnectedCounter;
+
+    // Null without the outbox
+    private final NewsOutboxReader outboxReader;
+    private final int outboxBatchSize;
+    private NewsOutboxReader.Offset outboxOffset;
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    // The version of the last change read from the outbox, of the 'replay-size' news changed last
+    private final Map<Long, Long> newsVersions;
+
+    public NewsStream(@Value("${news.stream.replay-size:1000}") int replaySize,
+                      @Value("${news.stream.subscriber-queue-size:256}") int queueSize,
+                      @Value("${news.stream.max-subscribers:10000}") int maxSubscribers,
+                      ObjectProvider<NewsOutboxReader> outboxReader,
+                      @Value("${news.outbox.batch-size:500}") int outboxBatchSize,
+                      MeterRegistry meterRegistry) {
+        this.replaySize = replaySize;
+        this.queueSize = queueSize;
+        this.maxSubscribers = maxSubscribers;
+        this.replay = new Entry[replaySize];
+        this.outboxReader = outboxReader.getIfAvailable();
+        this.outboxBatchSize = outboxBatchSize;
+        this.outboxOffset = this.outboxReader == null ? null : this.outboxReader.latest();
+        this.newsVersions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > replaySize;
+            }
+        };
+        meterRegistry.gaugeCollectionSize("news.stream.subscribers", List.of(), subscribers);
+        this.disconnectedCounter = Counter.builder("news.stream.disconnected")
+                .description("Subscribers disconnected because they did not keep up with the stream")
+                .register(meterRegistry);
+    }
+
+    // Returns false if there are too many subscribers already
+    public boolean subscribe(SseEmitter emitter, Long lastEventId) {
+
+        Subscriber subscriber;
+
+        // Under the lock, so that no change is published between the replay and the registration of the subscriber,
+        // and that concurrent subscriptions do not exceed the maximum
+        lock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                return false;
+            }
+            var missed = missedSince(lastEventId);
+            subscriber = new Subscriber(emitter, queueSize + (missed == null ? 1 : missed.size()));
+            if (missed == null) {
+                subscriber.offer(new Entry(sequence, RESET_EVENT, null));
+            } else {
+                missed.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscriber.drain();
+
+        return true;
+    }
+
+    // Without the outbox only: the changes of this instance come from the outbox as well otherwise
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNewsChanged(NewsChangedEvent event) {
+        if (outboxReader == null) {
+            publish(event.getType(), NewsSummary.from(event.getNews()));
+        }
+    }
+
+    // Returns the number of changes read
+    @Scheduled(fixedDelayString = "${news.stream.poll-interval:PT1S}")
+    public int poll() {
+
+        if (outboxReader == null) {
+            return 0;
+        }
+
+        pollLock.lock();
+        try {
+            var read = 0;
+            NewsOutboxReader.Batch batch;
+            do {
+                batch = outboxReader.next(outboxOffset, outboxBatchSize);
+                for (var event : batch.events()) {
+                    var previous = newsVersions.get(event.getNewsId());
+                    if (previous != null && previous >= event.getNewsVersion()) {
+                        continue;
+                    }
+                    newsVersions.put(event.getNewsId(), event.getNewsVersion());
+                    publish(event.getType(), new NewsSummary(event.getNewsId(), event.getTitle(), event.getPublishedAt(), event.getCategoryName()));
+                }
+                outboxOffset = batch.offset();
+                read += batch.events().size();
+            } while (batch.events().size() == outboxBatchSize);
+            return read;
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    // The deleted and the archived news are not streamed
+    private void publish(NewsChangedEvent.Type type, NewsSummary news) {
+
+        if (type != NewsChangedEvent.Type.CREATED && type != NewsChangedEvent.Type.UPDATED) {
+            return;
+        }
+        var name = type.name().toLowerCase(Locale.ROOT);
+
+        lock.lock();
+        try {
+            var entry = new Entry(++sequence, name, news);
+            replay[(int) (entry.sequence() % replaySize)] = entry;
+            for (var subscriber : subscribers) {
+                subscriber.offer(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (var subscriber : subscribers) {
+            subscriber.drain();
+        }
+    }
+
+    // Also lets the dead connections be noticed, as a write to them fails
+    @Scheduled(fixedDelayString = "${news.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (var subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    public int getSubscribersCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    // The entries after the given one, or null if some of them are not in the buffer anymore
+    private List<Entry> missedSince(Long lastEventId) {
+
+        var missed = new ArrayList<Entry>();
+        if (lastEventId == null) {
+            return missed;
+        }
+
+        if (lastEventId > sequence || sequence - lastEventId > replaySize) {
+            return null;
+        }
+        for (var id = lastEventId + 1; id <= sequence; id++) {
+            var entry = replay[(int) (id % replaySize)];
+            if (entry == null || entry.sequence() != id) {
+                return null;
+            }
+            missed.add(entry);
+        }
+        return missed;
+    }
+
+    private static final Entry HEARTBEAT = new Entry(0, null, null);
+
+    private record Entry(long sequence, String name, NewsSummary news) {
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            var event = SseEmitter.event()
+                    .id(Long.toString(sequence))
+                    .name(name);
+            return news == null ? event.data("") : event.data(news, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Entry> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(Entry entry) {
+            if (!closed && !queue.offer(entry)) {
+                disconnectedCounter.increment();
+                close();
+                emitter.complete();
+            }
+        }
+
+        void drain() {
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        // Queued like the events, so that it is never sent concurrently with one
+        void heartbeat() {
+            if (!closed && queue.offer(HEARTBEAT)) {
+                drain();
+            }
+        }
+
+        private void send() {
+            try {
+                Entry entry;
+                while (!closed && (entry = queue.poll()) != null) {
+                    if (!send(entry.toEvent())) {
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An entry offered after the last poll, but before the flag was released, would be left in the queue otherwise
+            drain();
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The connection is gone or the emitter is completed already, the container completes the request itself
+                close();
+                return false;
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.service;
+
+import com.example.model.NewsWrite;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+// Append-only journal of NewsWritePipeline, in segment files '<path>.1', '<path>.2', ...: the accepted and the completed writes
+public class NewsWriteJournal implements Closeable {
+
+    private static final Pattern SEGMENT_NUMBER = Pattern.compile("\\d+");
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final long segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    // Oldest first: the last one is appended to
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<String, Segment> pendingSegments = new HashMap<>();
+    private final List<NewsWrite> pendingAtOpen;
+
+    private long appended;
+    private final AtomicLong forced = new AtomicLong();
+
+    public NewsWriteJournal(Path path, ObjectMapper objectMapper, long segmentSize) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.segmentSize = segmentSize;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        var pending = new LinkedHashMap<String, NewsWrite>();
+        for (var segment : existingSegments()) {
+            segments.addLast(segment);
+            read(segment, pending);
+        }
+        this.pendingAtOpen = new ArrayList<>(pending.values());
+
+        // Never appended to after a restart: its last line may be torn
+        var number = segments.isEmpty() ? 1 : segments.getLast().number + 1;
+        segments.addLast(Segment.open(number, segmentPath(number)));
+        dropCompletedSegments();
+    }
+
+    // The writes which were not completed when the journal was opened, in the order they were accepted
+    public List<NewsWrite> readPending() {
+        return List.copyOf(pendingAtOpen);
+    }
+
+    // Returns the position to sync to before the write is acknowledged
+    public long appendWrite(NewsWrite write) throws IOException {
+        var bytes = bytesOf(new Entry(write, null));
+        lock.lock();
+        try {
+            var segment = append(bytes);
+            if (pendingSegments.putIfAbsent(write.getKey(), segment) == null) {
+                segment.pendingWrites++;
+            }
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void appendCompleted(String key) throws IOException {
+        var bytes = bytesOf(new Entry(null, key));
+        lock.lock();
+        try {
+            append(bytes);
+            var segment = pendingSegments.remove(key);
+            if (segment != null) {
+                segment.pendingWrites--;
+                dropCompletedSegments();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns once what was appended up to the position is on the disk, forced once for the threads waiting meanwhile
+    public void sync(long position) throws IOException {
+        if (forced.get() >= position) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (forced.get() >= position) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            lock.lock();
+            try {
+                channel = segments.getLast().channel;
+                target = appended;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated meanwhile, which forced it before closing it
+            }
+            forced.accumulateAndGet(target, Math::max);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    // The segments on the disk, including the one being appended to
+    public int segmentsCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            var channel = segments.getLast().channel;
+            channel.force(false);
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment append(byte[] bytes) throws IOException {
+        var segment = segments.getLast();
+        if (segment.size > 0 && segment.size + bytes.length > segmentSize) {
+            segment = rotate();
+        }
+        var buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            segment.channel.write(buffer);
+        }
+        segment.size += bytes.length;
+        appended += bytes.length;
+        return segment;
+    }
+
+    private Segment rotate() throws IOException {
+        var full = segments.getLast();
+        full.channel.force(false);
+        full.channel.close();
+        forced.accumulateAndGet(appended, Math::max);
+
+        var segment = Segment.open(full.number + 1, segmentPath(full.number + 1));
+        segments.addLast(segment);
+        dropCompletedSegments();
+        return segment;
+    }
+
+    private void dropCompletedSegments() throws IOException {
+        while (segments.size() > 1 && segments.getFirst().pendingWrites == 0) {
+            Files.deleteIfExists(segments.removeFirst().path);
+        }
+    }
+
+    private void read(Segment segment, Map<String, NewsWrite> pending) throws IOException {
+        for (var line : Files.readAllLines(segment.path, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Entry entry;
+            try {
+                entry = objectMapper.readValue(line, Entry.class);
+            } catch (JsonProcessingException e) {
+                // The last line, torn by a stop in the middle of an append
+                continue;
+            }
+            if (entry.getWrite() != null) {
+                if (pending.putIfAbsent(entry.getWrite().getKey(), entry.getWrite()) == null) {
+                    pendingSegments.put(entry.getWrite().getKey(), segment);
+                    segment.pendingWrites++;
+                }
+            } else if (entry.getCompleted() != null && pending.remove(entry.getCompleted()) != null) {
+                pendingSegments.remove(entry.getCompleted()).pendingWrites--;
+            }
+        }
+    }
+
+    // A journal written before the segments, at 'path' itself, is read as the first segment
+    private List<Segment> existingSegments() throws IOException {
+        var existing = new ArrayList<Segment>();
+        if (Files.isRegularFile(path)) {
+            existing.add(new Segment(0, path));
+        }
+        var prefix = path.getFileName() + ".";
+        try (var files = Files.list(path.toAbsolutePath().getParent())) {
+            for (var file : files.toList()) {
+                var name = file.getFileName().toString();
+                if (name.startsWith(prefix) && SEGMENT_NUMBER.matcher(name.substring(prefix.length())).matches()) {
+                    existing.add(new Segment(Long.parseLong(name.substring(prefix.length())), file));
+                }
+            }
+        }
+        existing.sort(Comparator.comparingLong(segment -> segment.number));
+        return existing;
+    }
+
+    private Path segmentPath(long number) {
+        return path.resolveSibling(path.getFileName() + "." + number);
+    }
+
+    private byte[] bytesOf(Entry entry) throws JsonProcessingException {
+        return (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Only the last segment is open
+    private static final class Segment {
+
+        private final long number;
+        private final Path path;
+        private FileChannel channel;
+        private long size;
+        private int pendingWrites;
+
+        private Segment(long number, Path path) {
+            this.number = number;
+            this.path = path;
+        }
+
+        static Segment open(long number, Path path) throws IOException {
+            var segment = new Segment(number, path);
+            segment.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segment.size = segment.channel.size();
+            return segment;
+        }
+    }
+
+    // Either an accepted write or the key of a completed one
+    @Data
+    @NoArgsConstructor @AllArgsConstructor
+    static class Entry {
+        private NewsWrite write;
+        private String completed;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.service;
+
+import com.example.model.News;
+import com.example.model.NewsWrite;
+import com.example.model.NewsWriteStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Asynchronous creation and update of news ('news.write-pipeline.enabled'): a write is accepted once it is journaled,
+// and written in batches by a single background writer. Its key in 'news_writes' keeps it from being applied twice.
+@Service
+@ConditionalOnProperty(name = "news.write-pipeline.enabled", havingValue = "true")
+public class NewsWritePipeline implements DisposableBean {
+
+    private final NewsService newsService;
+    private final CategoryService categoryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final NewsWriteJournal journal;
+    private final int batchSize;
+    private final int capacity;
+    private final Duration keysRetention;
+
+    private final BlockingQueue<NewsWrite> queue = new LinkedBlockingQueue<>();
+    private final Map<String, NewsWrite> pending = new ConcurrentHashMap<>();
+    private final Cache<String, NewsWriteStatus> completed;
+
+    // Taken to accept a write, so that the capacity is checked and the write journaled at once
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Thread writer;
+    private volatile boolean stopped;
+
+    public NewsWritePipeline(NewsService newsService, CategoryService categoryService, JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate, MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                             @Value("${news.write-pipeline.journal:data/news-writes.journal}") Path journalPath,
+                             @Value("${news.write-pipeline.journal-segment-size:16MB}") DataSize journalSegmentSize,
+                             @Value("${news.write-pipeline.batch-size:100}") int batchSize,
+                             @Value("${news.write-pipeline.capacity:10000}") int capacity,
+                             @Value("${news.write-pipeline.status-retention:1h}") Duration statusRetention,
+                             @Value("${news.write-pipeline.keys-retention:7d}") Duration keysRetention) throws IOException {
+
+        this.newsService = newsService;
+        this.categoryService = categoryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.keysRetention = keysRetention;
+        this.completed = Caffeine.newBuilder()
+                .expireAfterWrite(statusRetention)
+                .build();
+
+        this.journal = new NewsWriteJournal(journalPath, objectMapper, journalSegmentSize.toBytes());
+
+        meterRegistry.gaugeMapSize("news.writes.pending", List.of(), pending);
+    }
+
+    // The writes accepted since the server started are in the journal as well, they are queued once
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+
+        lock.lock();
+        try {
+            for (var write : journal.readPending()) {
+                if (pending.putIfAbsent(write.getKey(), write) == null) {
+                    queue.add(write);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        writer = Thread.ofVirtual().name("news-writer").start(this::run);
+    }
+
+    // Returns null if too many writes are pending already, or if the pipeline is stopping. A failed write is accepted again
+    public NewsWriteStatus submit(NewsWrite write) {
+
+        if (pending.containsKey(write.getKey())) {
+            return pendingStatus(write.getKey());
+        }
+        var status = completed.getIfPresent(write.getKey());
+        if (status != null && status.getState() == NewsWriteStatus.State.DONE) {
+            return status;
+        }
+
+        long position;
+        lock.lock();
+        try {
+            if (stopped || pending.size() >= capacity) {
+                return null;
+            }
+            if (pending.putIfAbsent(write.getKey(), write) != null) {
+                return pendingStatus(write.getKey());
+            }
+            completed.invalidate(write.getKey());
+            try {
+                position = journal.appendWrite(write);
+            } catch (IOException e) {
+                pending.remove(write.getKey());
+                throw new UncheckedIOException(e);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            journal.sync(position);
+        } catch (IOException e) {
+            // Not acknowledged: replayed after a restart if it reached the disk after all
+            pending.remove(write.getKey());
+            throw new UncheckedIOException(e);
+        }
+
+        queue.add(write);
+
+        return pendingStatus(write.getKey());
+    }
+
+    // Returns null if the key is unknown
+    public NewsWriteStatus getStatus(String key) {
+
+        if (pending.containsKey(key)) {
+            return pendingStatus(key);
+        }
+
+        var status = completed.getIfPresent(key);
+        if (status != null) {
+            return status;
+        }
+
+        var newsId = writtenNewsId(key);
+        return newsId == null ? null : new NewsWriteStatus(key, NewsWriteStatus.State.DONE, newsId, null);
+    }
+
+    @Scheduled(cron = "${news.write-pipeline.keys-cleanup-cron:0 0 4 * * *}")
+    public void deleteExpiredKeys() {
+        jdbcTemplate.update("delete from news_writes where written_at < ?", LocalDateTime.now().minus(keysRetention));
+    }
+
+    // Not interrupted: the writer finishes its batch, the writes left are replayed after a restart
+    @Override
+    public void destroy() throws Exception {
+        lock.lock();
+        try {
+            stopped = true;
+        } finally {
+            lock.unlock();
+        }
+        var writer = this.writer;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        journal.close();
+    }
+
+    private void run() {
+        while (!stopped) {
+            var batch = new ArrayList<NewsWrite>(batchSize);
+            try {
+                var first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                return;
+            }
+            write(batch);
+        }
+    }
+
+    void write(List<NewsWrite> batch) {
+
+        var sample = Timer.start(meterRegistry);
+
+        try {
+            var newsIds = transactionTemplate.execute(status -> batch.stream()
+                    .map(this::apply)
+                    .toList());
+            for (var i = 0; i < batch.size(); i++) {
+                complete(new NewsWriteStatus(batch.get(i).getKey(), NewsWriteStatus.State.DONE, newsIds.get(i), null));
+            }
+        } catch (RuntimeException batchError) {
+            for (var write : batch) {
+                try {
+                    var newsId = transactionTemplate.execute(status -> apply(write));
+                    complete(new NewsWriteStatus(write.getKey(), NewsWriteStatus.State.DONE, newsId, null));
+                } catch (RuntimeException e) {
+                    complete(new NewsWriteStatus(write.getKey(), NewsWriteStatus.State.FAILED, write.getNewsId(), e.getMessage()));
+                }
+            }
+        }
+
+        sample.stop(meterRegistry.timer("service.writeNews"));
+    }
+
+    // Returns the id of the written news
+    private Long apply(NewsWrite write) {
+
+        var writtenNewsId = writtenNewsId(write.getKey());
+        if (writtenNewsId != null) {
+            return writtenNewsId;
+        }
+
+        var category = write.getCategory() == null ? null : categoryService.getByName(write.getCategory());
+        var news = new News(null, write.getTitle(), write.getContent(), write.getPublishedAt(), category);
+        news = write.getOperation() == NewsWrite.Operation.UPDATE
+                ? newsService.update(write.getNewsId(), news)
+                : newsService.create(news);
+
+        jdbcTemplate.update("insert into news_writes (idempotency_key, news_id) values (?, ?)", write.getKey(), news.getId());
+
+        return news.getId();
+    }
+
+    private void complete(NewsWriteStatus status) {
+        completed.put(status.getKey(), status);
+        pending.remove(status.getKey());
+        meterRegistry.counter("service.writeNews.items", "result", status.getState().name().toLowerCase()).increment();
+        try {
+            journal.appendCompleted(status.getKey());
+        } catch (IOException e) {
+            // Replayed after a restart then, and recognized by its key if it was written
+        }
+    }
+
+    private Long writtenNewsId(String key) {
+        var ids = jdbcTemplate.queryForList("select news_id from news_writes where idempotency_key = ?", Long.class, key);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    private static NewsWriteStatus pendingStatus(String key) {
+        return new NewsWriteStatus(key, NewsWriteStatus.State.PENDING, null, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Coalesces the concurrent loads of the same key: the callers that come while one runs get its result, or load it themselves after 'timeout'
+public class SingleFlight<K, V> {
+
+    private final Duration timeout;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalescedCounter;
+    private final Counter timeoutCounter;
+
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        this.coalescedCounter = Counter.builder("single-flight.coalesced")
+                .description("Callers which got the result of a concurrent identical load instead of loading it")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("single-flight.timeouts")
+                .description("Callers which stopped waiting for a concurrent identical load and loaded it themselves")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+
+        var flight = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            try {
+                var result = existing.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                coalescedCounter.increment();
+                return result;
+            } catch (ExecutionException e) {
+                coalescedCounter.increment();
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                timeoutCounter.increment();
+                return loader.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the load of " + key, e);
+            }
+        }
+
+        try {
+            var result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // The number of loads running
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.view;
+
+import com.example.event.NewsArchivedEvent;
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
+import com.example.service.CategoryService;
+import com.example.service.NewsFeedVersion;
+import com.example.service.NewsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.UriUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.context.IWebContext;
+import org.thymeleaf.linkbuilder.StandardLinkBuilder;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.templateresolver.ITemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The first page of the news feed and of every category, rendered in the background and again 'news.snapshots.debounce' after a change
+@Component
+@ConditionalOnProperty(name = "news.snapshots.enabled", havingValue = "true")
+public class NewsListSnapshots implements DisposableBean {
+
+    // The key of the feed without filters, category names being never empty
+    private static final String ALL = "";
+
+    private final NewsService newsService;
+    private final CategoryService categoryService;
+    private final ApplicationContext applicationContext;
+    private final ConversionService conversionService;
+    private final String contextPath;
+    private final Duration debounce;
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final Map<String, byte[]> snapshots = new ConcurrentHashMap<>();
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledExecutorService renderer = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("news-snapshots").factory());
+
+    // Incremented by every change, so that a page rendered concurrently with a change is not kept
+    private final AtomicLong changes = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter failureCounter;
+
+    public NewsListSnapshots(NewsService newsService, CategoryService categoryService,
+                             ApplicationContext applicationContext,
+                             ConversionService mvcConversionService, ServletContext servletContext,
+                             ObjectProvider<ITemplateResolver> templateResolvers, MeterRegistry meterRegistry,
+                             @Value("${news.snapshots.debounce:2s}") Duration debounce) {
+        this.newsService = newsService;
+        this.categoryService = categoryService;
+        this.applicationContext = applicationContext;
+        this.conversionService = mvcConversionService;
+        this.contextPath = servletContext.getContextPath();
+        this.debounce = debounce;
+
+        // An engine of its own, with the templates of the application, to render them out of any request
+        this.templateEngine = new SpringTemplateEngine();
+        templateResolvers.orderedStream().forEach(templateEngine::addTemplateResolver);
+        templateEngine.setLinkBuilder(new SnapshotLinkBuilder(contextPath));
+
+        this.hitCounter = meterRegistry.counter("news.snapshots.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("news.snapshots.requests", "result", "miss");
+        this.failureCounter = meterRegistry.counter("news.snapshots.failures");
+    }
+
+    // The page of the feed filtered by nothing or by a single category, or null if there is no snapshot of it (yet)
+    public byte[] get(NewsFilter filter) {
+        var key = keyOf(filter);
+        if (key == null) {
+            return null;
+        }
+        var snapshot = snapshots.get(key);
+        (snapshot != null ? hitCounter : missCounter).increment();
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${news.snapshots.refresh-cron:0 0 * * * *}")
+    public void refreshAll() {
+        stale.add(ALL);
+        for (var category : categoryService.getAll()) {
+            stale.add(category.getName());
+        }
+        schedule();
+    }
+
+    // The archived news may be on any page
+    @EventListener
+    public void onNewsArchived(NewsArchivedEvent event) {
+        dropAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(NewsFeedVersion.EVICTION_ORDER)
+    public void onNewsChanged(NewsChangedEvent event) {
+
+        changes.incrementAndGet();
+
+        var keys = new ArrayList<String>();
+        keys.add(ALL);
+        for (var category : event.getCategories()) {
+            if (category.getName() != null) {
+                keys.add(category.getName());
+            }
+        }
+        keys.forEach(snapshots::remove);
+        stale.addAll(keys);
+
+        schedule();
+    }
+
+    // Renders the stale pages now
+    public void render() {
+
+        scheduled.set(false);
+
+        var categories = categoryService.getAll();
+        var names = new HashSet<String>();
+        for (var category : categories) {
+            names.add(category.getName());
+            if (stale.remove(category.getName())) {
+                renderPage(category.getName(), category, categories);
+            }
+        }
+        if (stale.remove(ALL)) {
+            renderPage(ALL, null, categories);
+        }
+        // The categories which do not exist anymore
+        for (var key : stale) {
+            if (!key.equals(ALL) && !names.contains(key)) {
+                stale.remove(key);
+                snapshots.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        renderer.shutdownNow();
+    }
+
+    private void dropAll() {
+        changes.incrementAndGet();
+        snapshots.clear();
+        refreshAll();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            renderer.schedule(this::render, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // A page which fails to render is rendered live until the next refresh
+    private void renderPage(String key, Category category, List<Category> categories) {
+
+        var changesBefore = changes.get();
+
+        var filter = NewsFilter.of(null, null, category);
+        Window<NewsSummary> news;
+        try {
+            news = newsService.getAllByParams(filter, null);
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            return;
+        }
+        var query = category == null ? null : "category=" + UriUtils.encodeQueryParam(category.getName(), StandardCharsets.UTF_8);
+        var nextPage = NewsListView.nextPageUri(contextPath + "/news", query, news);
+
+        var context = new Context(Locale.getDefault(), NewsListView.listModel(filter, null, null, null, news.getContent(), nextPage, categories));
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, conversionService));
+
+        byte[] html;
+        try {
+            html = templateEngine.process("news/list", context).getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            return;
+        }
+
+        // Rendered again after the change otherwise. Checked in the compute: a change counted after the check removes the page after it
+        snapshots.compute(key, (k, snapshot) -> changes.get() == changesBefore ? html : snapshot);
+    }
+
+    private static String keyOf(NewsFilter filter) {
+        if (filter.equals(NewsFilter.of(null, null, null))) {
+            return ALL;
+        }
+        var category = filter.getOnlyCategory();
+        return category == null ? null : category.getName();
+    }
+
+    // Resolves '@{/news/...}' with the context path of the application, there being no request to take it from
+    private static class SnapshotLinkBuilder extends StandardLinkBuilder {
+
+        private final String contextPath;
+
+        SnapshotLinkBuilder(String contextPath) {
+            this.contextPath = contextPath;
+        }
+
+        @Override
+        protected String computeContextPath(IExpressionContext context, String base, Map<String, Object> parameters) {
+            if (context instanceof IWebContext) {
+                return super.computeContextPath(context, base, parameters);
+            }
+            return contextPath;
+        }
+    }
+}
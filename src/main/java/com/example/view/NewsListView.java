@@ -0,0 +1,49 @@
+package com.example.view;
+
+import com.example.controller.converter.ScrollPositionConverter;
+import com.example.model.Category;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The model of 'news/list', rendered by NewsController and by NewsListSnapshots
+public final class NewsListView {
+
+    private NewsListView() {
+    }
+
+    public static Map<String, Object> listModel(NewsFilter filter, LocalDate from, LocalDate to, String sort,
+                                                List<NewsSummary> listNews, String nextPage, List<Category> categories) {
+        var model = new HashMap<String, Object>();
+        model.put("listNews", listNews);
+        model.put("nextPage", nextPage);
+        model.put("title", filter.getTitle());
+        model.put("content", filter.getContent());
+        model.put("selectedCategories", filter.getCategories());
+        model.put("from", from);
+        model.put("to", to);
+        model.put("sort", sort);
+        model.put("categories", categories);
+        return model;
+    }
+
+    // The query is encoded already
+    public static String nextPageUri(String path, String query, Window<NewsSummary> news) {
+        if (!news.hasNext() || news.isEmpty()) {
+            return null;
+        }
+        var lastPosition = (KeysetScrollPosition) news.positionAt(news.size() - 1);
+        return UriComponentsBuilder.fromPath(path)
+                .query(query)
+                .replaceQueryParam("after", ScrollPositionConverter.toCursor(lastPosition))
+                .build(true)
+                .toUriString();
+    }
+}
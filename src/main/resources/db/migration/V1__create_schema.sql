@@ -0,0 +1,26 @@
+-- The schema used to be generated by Hibernate (ddl-auto=update), so everything here is idempotent
+-- and the migration can be applied on top of such a database as well (spring.flyway.baseline-version=0).
+
+create table if not exists categories (
+    id   integer generated by default as identity primary key,
+    name varchar(255) unique
+);
+
+create table if not exists news (
+    id           bigint primary key,
+    title        varchar(255),
+    content      text,
+    published_at timestamp(6),
+    category_id  integer references categories (id)
+);
+
+-- The content may be up to 9999 characters long
+alter table news alter column content type text;
+
+-- News ids are allocated by Hibernate in blocks of 50 (see News.id),
+-- they used to be generated by an identity column, so the sequence starts past the existing ids.
+create sequence if not exists news_seq start with 1 increment by 50;
+
+select setval('news_seq', m.max_id)
+from (select max(id) as max_id from news) m
+where m.max_id > (select last_value from news_seq);
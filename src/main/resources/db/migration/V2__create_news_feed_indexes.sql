@@ -0,0 +1,12 @@
+-- Indexes for the queries of NewsFeedRepositoryImpl. They are created concurrently, so that the table stays writable,
+-- which makes Flyway run this migration outside of a transaction.
+
+-- The feed: newest first, paged by a keyset on (published_at, id)
+create index concurrently if not exists news_published_at_id_idx on news (published_at desc, id desc);
+
+-- The feed of a category
+create index concurrently if not exists news_category_id_published_at_id_idx on news (category_id, published_at desc, id desc);
+
+-- Full-text search on the title and content
+create index concurrently if not exists news_title_fts_idx on news using gin (to_tsvector('simple', title));
+create index concurrently if not exists news_content_fts_idx on news using gin (to_tsvector('simple', content));
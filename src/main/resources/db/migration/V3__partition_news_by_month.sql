@@ -0,0 +1,73 @@
+-- News are split into monthly partitions by published_at: the feed is read newest first, so it only touches the last partitions,
+-- and the keyset conditions on published_at let the planner prune the newer ones for the next pages.
+-- The primary key of a partitioned table has to include the partition key, ids stay unique as they come from news_seq.
+-- So a lookup by id alone (NewsRepository.findById) cannot be pruned: it probes the primary key index of every partition,
+-- which the archiving keeps to the partitions of 'news.archive.after' and 'news.partitions.months-ahead'.
+-- Old news are moved to news_archive by NewsArchiveService, which also creates the partitions of the coming months.
+
+alter table news rename to news_unpartitioned;
+alter table news_unpartitioned drop constraint if exists news_pkey;
+drop index if exists news_published_at_id_idx;
+drop index if exists news_category_id_published_at_id_idx;
+drop index if exists news_title_fts_idx;
+drop index if exists news_content_fts_idx;
+
+create table news (
+    id           bigint       not null,
+    title        varchar(255),
+    content      text,
+    published_at timestamp(6) not null,
+    category_id  integer references categories (id),
+    primary key (id, published_at)
+) partition by range (published_at);
+
+-- Catches what falls outside of the monthly partitions, it stays empty as long as the partitions are created in advance
+create table news_default partition of news default;
+
+create or replace function create_news_partition(month date) returns void language plpgsql as $$
+declare
+    from_date date := date_trunc('month', month);
+begin
+    execute format('create table if not exists %I partition of news for values from (%L) to (%L)',
+                   'news_p' || to_char(from_date, 'YYYY_MM'), from_date, from_date + interval '1 month');
+end
+$$;
+
+select create_news_partition(m::date)
+from generate_series(date_trunc('month', coalesce((select min(published_at) from news_unpartitioned), now())),
+                     date_trunc('month', now()) + interval '3 months',
+                     interval '1 month') m;
+
+insert into news (id, title, content, published_at, category_id)
+select id, title, content, coalesce(published_at, now()), category_id
+from news_unpartitioned;
+
+drop table news_unpartitioned;
+
+-- The same indexes as in V2, created on every partition. Unlike those of V2 they are not built concurrently: the table is
+-- rewritten under an exclusive lock anyway, so on an existing database V2 only builds indexes that are dropped above.
+create index news_published_at_id_idx on news (published_at desc, id desc);
+create index news_category_id_published_at_id_idx on news (category_id, published_at desc, id desc);
+create index news_title_fts_idx on news using gin (to_tsvector('simple', title));
+create index news_content_fts_idx on news using gin (to_tsvector('simple', content));
+
+-- Archived news are rarely read, so their rows are compressed even when short (toast_tuple_target)
+create table news_archive (
+    id           bigint primary key,
+    title        varchar(255),
+    content      text,
+    published_at timestamp(6) not null,
+    category_id  integer references categories (id),
+    archived_at  timestamp(6) not null default now()
+) with (toast_tuple_target = 128);
+
+create index news_archive_published_at_idx on news_archive (published_at desc);
+
+-- lz4 compresses faster than the default pglz, but needs PostgreSQL 14 built with it
+do $$
+begin
+    alter table news_archive alter column content set compression lz4;
+exception when others then
+    raise notice 'lz4 compression is not available, news_archive.content is compressed with pglz';
+end
+$$;
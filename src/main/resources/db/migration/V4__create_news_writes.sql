@@ -0,0 +1,9 @@
+-- Idempotency keys of the writes of NewsWritePipeline, inserted in the same transaction as the news they wrote:
+-- a write replayed from the journal after a crash, or submitted twice, is recognized and not applied again.
+create table if not exists news_writes (
+    idempotency_key varchar(100) primary key,
+    news_id         bigint not null,
+    written_at      timestamp(6) not null default now()
+);
+
+create index if not exists news_writes_written_at_idx on news_writes (written_at);
@@ -0,0 +1,20 @@
+-- Changes of the news, inserted by NewsOutbox in the same transaction as the change itself,
+-- and relayed in the order of their ids by NewsOutboxRelay.
+create table if not exists news_outbox (
+    id          bigserial primary key,
+    event_type  varchar(10) not null,
+    news_id     bigint not null,
+    payload     jsonb not null,
+    created_at  timestamp(6) not null default now()
+);
+
+create index if not exists news_outbox_created_at_idx on news_outbox (created_at);
+
+-- The id of the last change relayed. The row is locked while a batch is relayed, so that with several instances
+-- of the application the changes are still relayed once and in order.
+create table if not exists news_outbox_offsets (
+    consumer    varchar(100) primary key,
+    last_id     bigint not null
+);
+
+insert into news_outbox_offsets (consumer, last_id) values ('relay', 0) on conflict do nothing;
@@ -0,0 +1,28 @@
+-- A partition cannot be created while news_default holds rows of its month, which happens when news are published
+-- further ahead than the partitions created by NewsArchiveService ('news.partitions.months-ahead').
+-- Such rows are moved out of news_default and back into the new partition, in the same transaction.
+
+create or replace function create_news_partition(month date) returns void language plpgsql as $$
+declare
+    from_date      date := date_trunc('month', month);
+    until_date     date := from_date + interval '1 month';
+    partition_name text := 'news_p' || to_char(from_date, 'YYYY_MM');
+begin
+    if to_regclass(partition_name) is not null then
+        return;
+    end if;
+
+    create temporary table news_of_month (like news) on commit drop;
+
+    with moved as (
+        delete from news_default
+        where published_at >= from_date and published_at < until_date
+        returning *)
+    insert into news_of_month select * from moved;
+
+    execute format('create table %I partition of news for values from (%L) to (%L)', partition_name, from_date, until_date);
+
+    insert into news select * from news_of_month;
+    drop table news_of_month;
+end
+$$;
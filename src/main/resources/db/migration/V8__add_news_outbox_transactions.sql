@@ -0,0 +1,15 @@
+-- The transaction of every change (its 64-bit id, as a bigint), so that NewsOutboxRelay only relays the changes of
+-- the transactions that are over: an id allocated by a transaction still running is not skipped when it commits late.
+alter table news_outbox add column if not exists xid bigint not null default pg_current_xact_id()::text::bigint;
+
+create index if not exists news_outbox_xid_id_idx on news_outbox (xid, id);
+
+-- The transactions of the changes being relayed, from window_from (included) to window_to (excluded):
+-- the changes of the transactions before window_from are relayed, those of the window up to last_id.
+-- The changes written so far all have the transaction of this migration, and are relayed up to last_id already.
+alter table news_outbox_offsets add column if not exists window_from bigint not null default 0;
+alter table news_outbox_offsets add column if not exists window_to bigint not null default 0;
+
+update news_outbox_offsets
+set window_from = pg_current_xact_id()::text::bigint,
+    window_to   = pg_current_xact_id()::text::bigint + 1;
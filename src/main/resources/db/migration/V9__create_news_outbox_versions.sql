@@ -0,0 +1,11 @@
+-- The number of the last change of every news written to the outbox (NewsOutboxEvent.newsVersion).
+-- NewsOutbox increments it in the transaction of the change, which keeps the row locked until it ends: the changes
+-- of a news are numbered in the order they commit, whatever the order in which the relay publishes them.
+create table if not exists news_outbox_versions (
+    news_id bigint primary key,
+    version bigint not null
+);
+
+insert into news_outbox_versions (news_id, version)
+select news_id, count(*) from news_outbox group by news_id
+on conflict do nothing;
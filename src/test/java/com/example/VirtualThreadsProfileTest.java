@@ -0,0 +1,26 @@
+package com.example;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("virtual-threads")
+class VirtualThreadsProfileTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Test
+    void testRequestsAreHandledOnVirtualThreads() {
+        var tomcat = ((TomcatWebServer) context.getWebServer()).getTomcat();
+        var executor = tomcat.getConnector().getProtocolHandler().getExecutor();
+        assertInstanceOf(VirtualThreadExecutor.class, executor);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestConcurrencyConfigurationTest {
+
+    private final RequestConcurrencyConfiguration.ConcurrencyLimitFilter filter = new RequestConcurrencyConfiguration.ConcurrencyLimitFilter(1);
+
+    @Test
+    void testRequestWaitsForPermit() throws Exception {
+
+        var inFirst = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var first = CompletableFuture.runAsync(() -> doFilter(() -> {
+            inFirst.countDown();
+            await(release);
+        }));
+        assertTrue(inFirst.await(10, TimeUnit.SECONDS));
+
+        var handled = new AtomicBoolean();
+        var second = CompletableFuture.runAsync(() -> doFilter(() -> handled.set(true)));
+
+        Thread.sleep(200);
+        assertFalse(handled.get());
+
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertTrue(handled.get());
+    }
+
+    @Test
+    void testPermitReleasedOnError() throws Exception {
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/news"),
+                new MockHttpServletResponse(), (req, resp) -> {
+                    throw new IllegalStateException();
+                }));
+
+        var handled = new AtomicBoolean();
+        CompletableFuture.runAsync(() -> doFilter(() -> handled.set(true))).get(10, TimeUnit.SECONDS);
+        assertTrue(handled.get());
+    }
+
+    private void doFilter(Runnable handler) {
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", "/news"), new MockHttpServletResponse(), (req, resp) -> handler.run());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.controller;
+
+import com.example.controller.converter.CategoryConverter;
+import com.example.model.Category;
+import com.example.model.NewsFilter;
+import com.example.model.NewsItem;
+import com.example.service.NewsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NewsApiControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private NewsService newsService;
+    @MockBean
+    private CategoryConverter categoryConverter;
+
+    private final List<NewsItem> items = List.of(
+            new NewsItem(3L, "title 3", "content 3, content 3, content 3", LocalDateTime.of(2024, 1, 3, 10, 0, 0), "category 1"),
+            new NewsItem(2L, "title 2", "content 2, content 2, content 2", LocalDateTime.of(2024, 1, 2, 10, 0, 0), "category 2"),
+            new NewsItem(1L, "title 1", "content 1, content 1, content 1", LocalDateTime.of(2024, 1, 1, 10, 0, 0), "category 1")
+    );
+
+    @BeforeEach
+    void setUp() {
+
+        Mockito.reset(newsService, categoryConverter);
+
+        when(newsService.streamByParams(any(), any(), anyInt(), anyBoolean(), any())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(2);
+            Function<Stream<NewsItem>, ?> reader = invocation.getArgument(4);
+            return reader.apply(items.stream().limit(limit));
+        });
+    }
+
+    @Test
+    void testGetAll() throws Exception {
+
+        perform(get("/api/news").param("title", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].id").value(3))
+                .andExpect(jsonPath("$.items[0].title").value("title 3"))
+                .andExpect(jsonPath("$.items[0].content").value("content 3, content 3, content 3"))
+                .andExpect(jsonPath("$.items[0].publishedAt").value("2024-01-03T10:00:00"))
+                .andExpect(jsonPath("$.items[0].category").value("category 1"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        verify(newsService, times(1)).streamByParams(eq(NewsFilter.of("title", null, null)), isNull(), eq(NewsService.PAGE_SIZE + 1), eq(true), any());
+    }
+
+    @Test
+    void testGetAllNextPage() throws Exception {
+
+        perform(get("/api/news").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.next").value("2024-01-02T10:00_2"));
+
+        perform(get("/api/news").param("limit", "2").param("after", "2024-01-02T10:00_2"))
+                .andExpect(status().isOk());
+
+        verify(newsService, times(1)).streamByParams(eq(NewsFilter.of(null, null, null)), notNull(), eq(3), eq(true), any());
+    }
+
+    @Test
+    void testGetAllSparseFields() throws Exception {
+
+        perform(get("/api/news").param("fields", "id,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(3))
+                .andExpect(jsonPath("$.items[0].title").value("title 3"))
+                .andExpect(jsonPath("$.items[0].content").doesNotExist())
+                .andExpect(jsonPath("$.items[0].publishedAt").doesNotExist());
+
+        // The content is not even read from the database
+        verify(newsService, times(1)).streamByParams(any(), any(), anyInt(), eq(false), any());
+    }
+
+    @Test
+    void testGetAllBadRequest() throws Exception {
+
+        mvc.perform(get("/api/news").param("fields", "id,unknown"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/api/news").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/api/news").param("limit", String.valueOf(NewsApiController.MAX_LIMIT + 1)))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/api/news").param("sort", "relevance"))
+                .andExpect(status().isBadRequest());
+
+        verify(newsService, never()).streamByParams(any(), any(), anyInt(), anyBoolean(), any());
+    }
+
+    // The query runs while the body is written, after the handler has returned
+    @Test
+    void testGetAllTimesTheWrittenBody() throws Exception {
+
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            Function<Stream<NewsItem>, ?> reader = invocation.getArgument(4);
+            return reader.apply(items.stream());
+        }).when(newsService).streamByParams(any(), any(), anyInt(), anyBoolean(), any());
+        var timer = meterRegistry.timer("controller.api.getAll",
+                "class", NewsApiController.class.getName(), "method", "getAll", "exception", "none");
+        var count = timer.count();
+        var totalTime = timer.totalTime(TimeUnit.MILLISECONDS);
+
+        perform(get("/api/news"))
+                .andExpect(status().isOk());
+
+        assertEquals(count + 1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) - totalTime >= 200);
+    }
+
+    // The same filters as the news list page
+    @Test
+    void testGetAllFilters() throws Exception {
+
+        var category1 = new Category(1, "category 1", new ArrayList<>());
+        var category2 = new Category(2, "category 2", new ArrayList<>());
+        when(categoryConverter.convert(category1.getName())).thenReturn(category1);
+        when(categoryConverter.convert(category2.getName())).thenReturn(category2);
+
+        perform(get("/api/news")
+                .param("category", category1.getName(), category2.getName())
+                .param("from", "2024-01-01")
+                .param("to", "2024-01-31")
+                .param("sort", "oldest"))
+                .andExpect(status().isOk());
+
+        var filter = NewsFilter.of(null, null, List.of(category1, category2),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), NewsFilter.Sort.OLDEST);
+        verify(newsService, times(1)).streamByParams(eq(filter), isNull(), anyInt(), anyBoolean(), any());
+    }
+
+    // The body is written asynchronously, after the handler has returned
+    private ResultActions perform(MockHttpServletRequestBuilder builder) throws Exception {
+        var result = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.controller;
+
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.repository.CategoryRepository;
+import com.example.repository.NewsRepository;
+import com.example.service.CategoryService;
+import com.example.service.NewsFeedCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Renders the pages against the real database and counts the SQL statements the DataSource executes for them
+@SpringBootTest
+@AutoConfigureMockMvc
+class NewsControllerQueryCountTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private NewsRepository newsRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private NewsFeedCache newsFeedCache;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Category> categories;
+    private List<News> news;
+
+    private String marker;
+
+    @BeforeEach
+    void setUp() {
+
+        marker = UUID.randomUUID().toString().substring(0, 8);
+
+        categories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            categories.add(categoryRepository.save(new Category(null, "category " + marker + " " + i, new ArrayList<>())));
+        }
+
+        news = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            news.add(new News(null, "title " + marker + " " + i, "content " + marker + " " + i + ", content, content, content",
+                    LocalDateTime.now().minusMinutes(i), categories.get(i % categories.size())));
+        }
+        news = newsRepository.saveAll(news);
+
+        // The saved news and categories went into the second-level cache
+        entityManagerFactory.getCache().evictAll();
+        categoryService.evictCache();
+        newsFeedCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        newsRepository.deleteAll(news);
+        categoryRepository.deleteAll(categories);
+        categoryService.evictCache();
+        newsFeedCache.clear();
+    }
+
+    @Test
+    void testGetAllWithoutParams() throws Exception {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // the page of news with the names of their categories + the categories of the search form
+        assertEquals(2, countStatements("/news"));
+        // the feed is read as projections, not as news entities
+        assertEquals(0, statistics.getEntityStatistics(News.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void testGetAllWithCachedCategories() throws Exception {
+        countStatements("/news?category=" + categories.get(0).getName());
+        // the category of the filter, its latest news and the categories of the search form are in memory by now
+        assertEquals(0, countStatements("/news?category=" + categories.get(0).getName()));
+    }
+
+    @Test
+    void testGetAllCached() throws Exception {
+        countStatements("/news?title=" + marker);
+        // the page and the categories of the search form are cached by now
+        assertEquals(0, countStatements("/news?title=" + marker));
+    }
+
+    @Test
+    void testGetAllNextPage() throws Exception {
+        var last = news.get(news.size() - 1);
+        assertEquals(2, countStatements("/news?after=" + last.getPublishedAt() + "_" + last.getId()));
+    }
+
+    @Test
+    void testGetAllByCategory() throws Exception {
+        // + the category of the filter
+        assertEquals(3, countStatements("/news?category=" + categories.get(0).getName()));
+    }
+
+    @Test
+    void testGetAllByTitle() throws Exception {
+        // the news found by the full-text search + the categories of the search form
+        assertEquals(2, countStatements("/news?title=" + marker));
+    }
+
+    @Test
+    void testGetAllByRelevance() throws Exception {
+        assertEquals(2, countStatements("/news?sort=relevance&content=" + marker));
+    }
+
+    @Test
+    void testGetById() throws Exception {
+        assertEquals(1, countStatements("/news/" + news.get(0).getId()));
+    }
+
+    @Test
+    void testGetByIdCached() throws Exception {
+        countStatements("/news/" + news.get(0).getId());
+        // the news and its category are in the second-level cache by now
+        assertEquals(0, countStatements("/news/" + news.get(0).getId()));
+    }
+
+    // Those of the thread of the request: the background tasks (such as the polling of the outbox) run in others
+    private long countStatements(String url) throws Exception {
+        QueryCountHolder.clear();
+        mvc.perform(get(url))
+                .andExpect(status().isOk());
+        return QueryCountHolder.getGrandTotal().getTotal();
+    }
+
+    @TestConfiguration
+    static class CountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? ProxyDataSourceBuilder.create(dataSource).countQuery().build()
+                            : bean;
+                }
+            };
+        }
+    }
+}
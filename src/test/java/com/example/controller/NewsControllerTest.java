@@ -1,9 +1,12 @@
 package com.example.controller;
 
 import com.example.controller.converter.CategoryConverter;
+import com.example.event.NewsChangedEvent;
 import com.example.exception.NewsNotFoundException;
 import com.example.model.Category;
 import com.example.model.News;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
 import com.example.service.CategoryService;
 import com.example.service.NewsService;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,15 +16,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -35,6 +45,9 @@ class NewsControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @MockBean
     private NewsService newsService;
     @MockBean
@@ -43,6 +56,7 @@ class NewsControllerTest {
     private CategoryConverter categoryConverter;
 
     private List<News> newsListInDB;
+    private List<NewsSummary> newsSummaries;
     private List<Category> categoriesInDB;
 
     private News newNews;
@@ -63,11 +77,12 @@ class NewsControllerTest {
 
         newNews = new News(null, "new title", "new content, new content, new content", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), categoriesInDB.get(1));
 
+        newsSummaries = newsListInDB.stream().map(NewsSummary::from).toList();
+
         Mockito.reset(newsService, categoryService);
 
         // news
-        when(newsService.getAll()).thenReturn(new ArrayList<>(newsListInDB));
-        when(newsService.getAllByParams(any(), any(), any())).thenReturn(new ArrayList<>(newsListInDB));
+        when(newsService.getAllByParams(any(NewsFilter.class), any())).thenReturn(Window.from(new ArrayList<>(newsSummaries), ScrollPosition::offset));
         when(newsService.getById(-1L)).thenReturn(null);
         when(newsService.create(any(News.class))).thenReturn(newNews);
         when(newsService.update(-1L, newNews)).thenThrow(NewsNotFoundException.class);
@@ -120,7 +135,7 @@ class NewsControllerTest {
         var resultActions = mvc.perform(get("/news"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -129,7 +144,7 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(null, null, null);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(null, null, null), null);
         verify(categoryService, times(1)).getAll();
     }
 
@@ -146,7 +161,7 @@ class NewsControllerTest {
                         .param("category", category.getName()))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -155,7 +170,7 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(title, content, category);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(title, content, category), null);
         verify(categoryService, times(1)).getAll();
     }
 
@@ -168,7 +183,7 @@ class NewsControllerTest {
                         .param("title", title))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -177,7 +192,7 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(title, null, null);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(title, null, null), null);
         verify(categoryService, times(1)).getAll();
     }
 
@@ -190,7 +205,7 @@ class NewsControllerTest {
                         .param("content", content))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -199,7 +214,7 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(null, content, null);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(null, content, null), null);
         verify(categoryService, times(1)).getAll();
     }
 
@@ -212,7 +227,7 @@ class NewsControllerTest {
                         .param("category", category.getName()))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -221,7 +236,7 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(null, null, category);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(null, null, category), null);
         verify(categoryService, times(1)).getAll();
     }
 
@@ -236,7 +251,7 @@ class NewsControllerTest {
                         .param("content", content))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -245,7 +260,7 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(title, content, null);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(title, content, null), null);
         verify(categoryService, times(1)).getAll();
     }
 
@@ -260,7 +275,7 @@ class NewsControllerTest {
                         .param("category", category.getName()))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -269,7 +284,7 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(title, null, category);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(title, null, category), null);
         verify(categoryService, times(1)).getAll();
     }
 
@@ -284,7 +299,7 @@ class NewsControllerTest {
                         .param("category", category.getName()))
                 .andExpect(status().isOk())
                 .andExpect(view().name("news/list"))
-                .andExpect(model().attribute("listNews", newsListInDB))
+                .andExpect(model().attribute("listNews", newsSummaries))
                 .andExpect(model().attribute("categories", categoriesInDB))
                 .andExpect(content().string(containsString("Find the news")));
 
@@ -293,10 +308,150 @@ class NewsControllerTest {
                     .andExpect(content().string(containsString(news.getTitle())));
         }
 
-        verify(newsService, times(1)).getAllByParams(null, content, category);
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(null, content, category), null);
+        verify(categoryService, times(1)).getAll();
+    }
+
+    @Test
+    void testGetAllByCategoriesAndDates() throws Exception {
+
+        mvc.perform(get("/news")
+                        .param("category", categoriesInDB.get(0).getName(), categoriesInDB.get(1).getName())
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-31")
+                        .param("sort", "oldest"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("news/list"))
+                .andExpect(model().attribute("listNews", newsSummaries))
+                .andExpect(model().attribute("selectedCategories", Set.copyOf(categoriesInDB)))
+                .andExpect(model().attribute("from", LocalDate.of(2024, 1, 1)));
+
+        var filter = new NewsFilter(null, null, categoriesInDB,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), NewsFilter.Sort.OLDEST);
+        verify(newsService, times(1)).getAllByParams(filter, null);
+    }
+
+    @Test
+    void testGetAllNextPage() throws Exception {
+
+        var lastNews = newsListInDB.get(newsListInDB.size() - 1);
+        var window = Window.from(new ArrayList<>(newsSummaries),
+                index -> ScrollPosition.forward(Map.of("publishedAt", newsSummaries.get(index).getPublishedAt(), "id", newsSummaries.get(index).getId())),
+                true);
+        var cursor = lastNews.getPublishedAt() + "_" + lastNews.getId();
+
+        when(newsService.getAllByParams(any(NewsFilter.class), any())).thenReturn(window);
+
+        // The link is built from the query string, which MockMvc fills from the URI only
+        mvc.perform(get("/news?title=a"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("news/list"))
+                .andExpect(model().attribute("nextPage", "/news?title=a&after=" + cursor))
+                .andExpect(content().string(containsString("Next page")));
+
+        var position = ScrollPosition.forward(Map.of("publishedAt", lastNews.getPublishedAt(), "id", lastNews.getId()));
+
+        mvc.perform(get("/news")
+                        .param("title", "a")
+                        .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(view().name("news/list"));
+
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of("a", null, null), position);
+    }
+
+    @Test
+    void testGetAllLastPage() throws Exception {
+
+        mvc.perform(get("/news"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("nextPage", (Object) null))
+                .andExpect(content().string(not(containsString("Next page"))));
+    }
+
+    @Test
+    void testGetAllMalformedCursor() throws Exception {
+
+        mvc.perform(get("/news")
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(newsService, never()).getAllByParams(any(NewsFilter.class), any());
+    }
+
+    @Test
+    void testGetAllByRelevance() throws Exception {
+
+        var title = "a";
+
+        when(newsService.searchByRelevance(any())).thenReturn(new ArrayList<>(newsSummaries));
+
+        mvc.perform(get("/news")
+                        .param("title", title)
+                        .param("sort", "relevance"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("news/list"))
+                .andExpect(model().attribute("listNews", newsSummaries))
+                .andExpect(model().attribute("nextPage", (Object) null))
+                .andExpect(model().attribute("sort", "relevance"));
+
+        verify(newsService, times(1)).searchByRelevance(NewsFilter.of(title, null, null));
+        verify(newsService, never()).getAllByParams(any(NewsFilter.class), any());
+    }
+
+    @Test
+    void testGetAllNotModified() throws Exception {
+
+        var eTag = mvc.perform(get("/news"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/news")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(newsService, times(1)).getAllByParams(NewsFilter.of(null, null, null), null);
         verify(categoryService, times(1)).getAll();
     }
 
+    @Test
+    void testGetAllModified() throws Exception {
+
+        var eTag = mvc.perform(get("/news"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        var news = newsListInDB.get(0);
+        eventPublisher.publishEvent(new NewsChangedEvent(NewsChangedEvent.Type.UPDATED, news, Set.of(news.getCategory())));
+
+        mvc.perform(get("/news")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(view().name("news/list"));
+
+        verify(newsService, times(2)).getAllByParams(NewsFilter.of(null, null, null), null);
+    }
+
+    @Test
+    void testGetByIdNotModified() throws Exception {
+
+        var news = newsListInDB.get(0);
+
+        var eTag = mvc.perform(get("/news/{id}", news.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/news/{id}", news.getId())
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        verify(newsService, times(1)).getById(news.getId());
+    }
+
     @Test
     void testInitCreation() throws Exception {
 
@@ -327,6 +482,22 @@ class NewsControllerTest {
         verify(categoryService, never()).getAll();
     }
 
+    @Test
+    void testProcessCreationWithUnsafeIdempotencyKey() throws Exception {
+
+        var dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        mvc.perform(post("/news")
+                        .header(NewsController.IDEMPOTENCY_KEY_HEADER, "../../admin?x=1")
+                        .param("title", newNews.getTitle())
+                        .param("content", newNews.getContent())
+                        .param("category", newNews.getCategory().getName())
+                        .param("publishedAt", newNews.getPublishedAt().format(dateFormatter)))
+                .andExpect(status().isBadRequest());
+
+        verify(newsService, never()).create(any(News.class));
+    }
+
     @Test
     void testProcessCreationValidationErrors() throws Exception {
 
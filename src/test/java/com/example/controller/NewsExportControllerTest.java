@@ -0,0 +1,89 @@
+package com.example.controller;
+
+import com.example.service.NewsExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NewsExportControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private NewsExportService newsExportService;
+
+    private static final String EXPORTED = "{\"id\":1}\n{\"id\":2}\n";
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        Mockito.reset(newsExportService);
+
+        when(newsExportService.export(any(), any())).thenAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write(EXPORTED.getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+    }
+
+    @Test
+    void testExport() throws Exception {
+
+        mvc.perform(get("/news/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"news.ndjson\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(EXPORTED));
+
+        verify(newsExportService, times(1)).export(eq(NewsExportService.Format.NDJSON), any());
+    }
+
+    @Test
+    void testExportCsvGzipped() throws Exception {
+
+        var response = mvc.perform(get("/news/export")
+                        .param("format", "csv")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"news.csv\""))
+                .andReturn()
+                .getResponse();
+
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(EXPORTED, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        verify(newsExportService, times(1)).export(eq(NewsExportService.Format.CSV), any());
+    }
+
+    @Test
+    void testExportUnknownFormat() throws Exception {
+
+        mvc.perform(get("/news/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(newsExportService, never()).export(any(), any());
+    }
+}
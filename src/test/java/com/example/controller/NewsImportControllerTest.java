@@ -0,0 +1,97 @@
+package com.example.controller;
+
+import com.example.model.NewsImportItem;
+import com.example.model.NewsImportResult;
+import com.example.service.NewsImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NewsImportControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private NewsImportService newsImportService;
+
+    private List<NewsImportItem> receivedItems;
+
+    private final List<NewsImportItem> items = List.of(
+            new NewsImportItem("title 1", "content 1, content 1, content 1", "category 1", LocalDateTime.of(2024, 1, 1, 10, 0, 0)),
+            new NewsImportItem("title 2", "content 2, content 2, content 2", "category 2", LocalDateTime.of(2024, 1, 1, 11, 0, 0))
+    );
+
+    @BeforeEach
+    void setUp() {
+
+        receivedItems = new ArrayList<>();
+
+        Mockito.reset(newsImportService);
+
+        when(newsImportService.importNews(any())).thenAnswer(invocation -> {
+            Iterator<NewsImportItem> iterator = invocation.getArgument(0);
+            iterator.forEachRemaining(receivedItems::add);
+            return new NewsImportResult(receivedItems.size(), receivedItems.size(), 0, List.of(), 10);
+        });
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+
+        var body = """
+                {"title": "title 1", "content": "content 1, content 1, content 1", "category": "category 1", "publishedAt": "2024-01-01T10:00:00"}
+                {"title": "title 2", "content": "content 2, content 2, content 2", "category": "category 2", "publishedAt": "2024-01-01T11:00:00"}
+                """;
+
+        mvc.perform(post("/news/import")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.itemsPerSecond").value(200.0));
+
+        assertEquals(items, receivedItems);
+        verify(newsImportService, times(1)).importNews(any());
+    }
+
+    @Test
+    void testImportJsonArray() throws Exception {
+
+        var body = """
+                [
+                    {"title": "title 1", "content": "content 1, content 1, content 1", "category": "category 1", "publishedAt": "2024-01-01T10:00:00"},
+                    {"title": "title 2", "content": "content 2, content 2, content 2", "category": "category 2", "publishedAt": "2024-01-01T11:00:00"}
+                ]
+                """;
+
+        mvc.perform(post("/news/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        assertEquals(items, receivedItems);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.setCurrentTransactionReadOnly;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica0;
+    private DataSource replica1;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        primary = mock(DataSource.class);
+        replica0 = mock(DataSource.class);
+        replica1 = mock(DataSource.class);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, List.of(replica0, replica1),
+                ReadWriteRoutingDataSource.LoadBalancing.ROUND_ROBIN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        setCurrentTransactionReadOnly(false);
+        ReadYourWrites.unpin();
+    }
+
+    @Test
+    void testWritesGoToPrimary() {
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadsAreBalancedOverReplicas() {
+        setCurrentTransactionReadOnly(true);
+        assertEquals(0, routingDataSource.determineCurrentLookupKey());
+        assertEquals(1, routingDataSource.determineCurrentLookupKey());
+        assertEquals(0, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testPinnedReadsGoToPrimary() {
+        setCurrentTransactionReadOnly(true);
+        ReadYourWrites.pin();
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testUnhealthyReplicasAreSkipped() throws SQLException {
+
+        var connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(replica0.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(replica1.getConnection()).thenReturn(connection);
+
+        routingDataSource.checkReplicas(1);
+        setCurrentTransactionReadOnly(true);
+
+        assertEquals(1, routingDataSource.getHealthyReplicasCount());
+        assertEquals(1, routingDataSource.determineCurrentLookupKey());
+        assertEquals(1, routingDataSource.determineCurrentLookupKey());
+
+        // Back to the primary when no replica is healthy, and back to a replica when it recovers
+        when(connection.isValid(anyInt())).thenReturn(false);
+        routingDataSource.checkReplicas(1);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+        when(connection.isValid(anyInt())).thenReturn(true);
+        routingDataSource.checkReplicas(1);
+        assertEquals(1, routingDataSource.determineCurrentLookupKey());
+        verify(connection, times(3)).close();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @Test
+    void testWriteSetsCookie() throws Exception {
+
+        var response = new MockHttpServletResponse();
+        var pinned = new AtomicBoolean();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/news"), response, (req, resp) -> pinned.set(ReadYourWrites.isPinned()));
+
+        var cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(pinned.get());
+        assertFalse(ReadYourWrites.isPinned());
+    }
+
+    @Test
+    void testReadAfterWriteIsPinned() throws Exception {
+
+        var request = new MockHttpServletRequest("GET", "/news/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "1"));
+        var pinned = new AtomicBoolean();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, resp) -> pinned.set(ReadYourWrites.isPinned()));
+
+        assertTrue(pinned.get());
+        assertFalse(ReadYourWrites.isPinned());
+    }
+
+    @Test
+    void testReadIsNotPinned() throws Exception {
+
+        var response = new MockHttpServletResponse();
+        var pinned = new AtomicBoolean(true);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/news"), response, (req, resp) -> pinned.set(ReadYourWrites.isPinned()));
+
+        assertFalse(pinned.get());
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+    }
+}
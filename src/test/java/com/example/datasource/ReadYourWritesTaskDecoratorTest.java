@@ -0,0 +1,49 @@
+package com.example.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesTaskDecoratorTest {
+
+    private final ReadYourWritesTaskDecorator decorator = new ReadYourWritesTaskDecorator();
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.unpin();
+    }
+
+    @Test
+    void testPinIsCarriedToTheTask() throws Exception {
+
+        var pinned = new AtomicBoolean();
+
+        ReadYourWrites.pin();
+        var task = decorator.decorate(() -> pinned.set(ReadYourWrites.isPinned()));
+        ReadYourWrites.unpin();
+
+        var afterTask = CompletableFuture.supplyAsync(() -> {
+            task.run();
+            return ReadYourWrites.isPinned();
+        });
+
+        assertFalse(afterTask.get(10, TimeUnit.SECONDS));
+        assertTrue(pinned.get());
+    }
+
+    @Test
+    void testTaskOfUnpinnedRequestIsNotPinned() throws Exception {
+
+        var pinned = new AtomicBoolean(true);
+
+        var task = decorator.decorate(() -> pinned.set(ReadYourWrites.isPinned()));
+        CompletableFuture.runAsync(task).get(10, TimeUnit.SECONDS);
+
+        assertFalse(pinned.get());
+    }
+}
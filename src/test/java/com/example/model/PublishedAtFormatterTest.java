@@ -0,0 +1,83 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublishedAtFormatterTest {
+
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+
+    private final MutableClock clock = new MutableClock(LocalDateTime.of(2024, 3, 10, 15, 30));
+    private final PublishedAtFormatter formatter = new PublishedAtFormatter(clock);
+
+    @Test
+    void testFormat() {
+        assertEquals("09:05:07", formatter.format(LocalDateTime.of(2024, 3, 10, 9, 5, 7, 123)));
+        assertEquals("09:05", formatter.format(LocalDateTime.of(2024, 3, 10, 9, 5)));
+        assertEquals(PublishedAtFormatter.YESTERDAY, formatter.format(LocalDateTime.of(2024, 3, 9, 23, 59)));
+        assertEquals("2024-03-08", formatter.format(LocalDateTime.of(2024, 3, 8, 12, 0)));
+        assertEquals("", formatter.format(null));
+    }
+
+    @Test
+    void testShortView() {
+        assertEquals("yesterday - title", formatter.shortView(LocalDateTime.of(2024, 3, 9, 8, 0), "title"));
+        assertEquals("title", formatter.shortView(null, "title"));
+    }
+
+    @Test
+    void testFormattedOnce() {
+        var publishedAt = LocalDateTime.of(2024, 3, 10, 9, 5, 7);
+        assertSame(formatter.format(publishedAt), formatter.format(publishedAt.withNano(1)));
+        assertSame(formatter.format(LocalDateTime.of(2024, 1, 1, 0, 0)), formatter.format(LocalDateTime.of(2024, 1, 1, 18, 0)));
+    }
+
+    @Test
+    void testNextDay() {
+
+        var publishedAt = LocalDateTime.of(2024, 3, 10, 9, 5, 7);
+        assertEquals("09:05:07", formatter.format(publishedAt));
+
+        clock.set(LocalDateTime.of(2024, 3, 11, 0, 0));
+        assertEquals(PublishedAtFormatter.YESTERDAY, formatter.format(publishedAt));
+        assertEquals("00:00", formatter.format(LocalDateTime.of(2024, 3, 11, 0, 0)));
+
+        clock.set(LocalDateTime.of(2024, 3, 12, 0, 0));
+        assertEquals("2024-03-10", formatter.format(publishedAt));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(LocalDateTime now) {
+            set(now);
+        }
+
+        void set(LocalDateTime now) {
+            instant = now.atZone(ZONE).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
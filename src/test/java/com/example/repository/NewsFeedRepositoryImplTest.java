@@ -0,0 +1,24 @@
+package com.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NewsFeedRepositoryImplTest {
+
+    @Test
+    void testToPrefixQuery() {
+        assertEquals("breaking:*", NewsFeedRepositoryImpl.toPrefixQuery("Breaking"));
+        assertEquals("breaking:* & news:*", NewsFeedRepositoryImpl.toPrefixQuery("  Breaking news!"));
+        assertEquals("it:* & s:* & 2024:*", NewsFeedRepositoryImpl.toPrefixQuery("it's 2024"));
+        assertEquals("новости:* & дня:*", NewsFeedRepositoryImpl.toPrefixQuery("Новости дня"));
+    }
+
+    @Test
+    void testToPrefixQueryWithoutWords() {
+        assertNull(NewsFeedRepositoryImpl.toPrefixQuery(null));
+        assertNull(NewsFeedRepositoryImpl.toPrefixQuery(" "));
+        assertNull(NewsFeedRepositoryImpl.toPrefixQuery("&|!:*"));
+    }
+}
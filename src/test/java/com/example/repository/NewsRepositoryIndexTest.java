@@ -0,0 +1,191 @@
+package com.example.repository;
+
+import com.example.model.Category;
+import com.example.model.NewsFilter;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Explains the statements NewsFeedRepositoryImpl sends, with sequential scans off: the indexes exist and can answer them
+@SpringBootTest
+@Transactional
+class NewsRepositoryIndexTest {
+
+    private static final List<Statement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private NewsRepository newsRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+
+        jdbcTemplate.update("insert into categories (name) select 'index test category ' || g from generate_series(1, 10) g");
+        jdbcTemplate.update("""
+                insert into news (id, title, content, published_at, category_id)
+                select nextval('news_seq'),
+                       case when g % 100 = 0 then 'Breaking news ' || g else 'title ' || g end,
+                       case when g % 100 = 0 then 'Breaking: content ' || g else 'content ' || g end,
+                       localtimestamp - g * interval '1 hour',
+                       (select min(id) from categories where name like 'index test category %') + g % 10
+                from generate_series(1, 2000) g""");
+        jdbcTemplate.execute("analyze categories");
+        jdbcTemplate.execute("analyze news");
+
+        var categoryId = jdbcTemplate.queryForObject("select min(id) from categories where name like 'index test category %'", Integer.class);
+        category = new Category(categoryId, "index test category 1", new ArrayList<>());
+
+        jdbcTemplate.execute("set local enable_seqscan = off");
+        STATEMENTS.clear();
+    }
+
+    @Test
+    void testFeed() {
+        assertUsesIndex("news_published_at_id_idx", explain(() ->
+                newsRepository.findFeed(NewsFilter.of(null, null, (Category) null), ScrollPosition.keyset(), 20)));
+    }
+
+    @Test
+    void testFeedNextPage() {
+        assertUsesIndex("news_published_at_id_idx", explain(() ->
+                newsRepository.findFeed(NewsFilter.of(null, null, (Category) null), nextPage(LocalDateTime.now().minusDays(1)), 20)));
+    }
+
+    @Test
+    void testFeedNextPagePrunesNewerPartitions() {
+
+        var month = YearMonth.now();
+        var partition = "news_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        var before = month.minusMonths(1).atDay(1).atStartOfDay();
+
+        var plan = explain(() -> newsRepository.findFeed(NewsFilter.of(null, null, (Category) null), nextPage(before), 20));
+        assertFalse(names(plan).contains(partition), () -> "The plan reads the partition " + partition + ":\n" + plan);
+    }
+
+    @Test
+    void testFeedByCategory() {
+        assertUsesIndex("news_category_id_published_at_id_idx", explain(() ->
+                newsRepository.findFeed(NewsFilter.of(null, null, category), nextPage(LocalDateTime.now().minusDays(1)), 20)));
+    }
+
+    @Test
+    void testFeedByTitle() {
+        assertUsesIndex("news_title_fts_idx", explain(() ->
+                newsRepository.findFeed(NewsFilter.of("breaking news", null, (Category) null), ScrollPosition.keyset(), 20)));
+    }
+
+    @Test
+    void testFeedByContent() {
+        assertUsesIndex("news_content_fts_idx", explain(() ->
+                newsRepository.findFeed(NewsFilter.of(null, "breaking", (Category) null), ScrollPosition.keyset(), 20)));
+    }
+
+    // Ranked, so every match is read: only the index of the condition can find them
+    @Test
+    void testSearchByTitle() {
+        assertUsesIndex("news_title_fts_idx", explain(() ->
+                newsRepository.searchByTextRanked(NewsFilter.of("breaking news", null, (Category) null), 20)));
+    }
+
+    @Test
+    void testSearchByContent() {
+        assertUsesIndex("news_content_fts_idx", explain(() ->
+                newsRepository.searchByTextRanked(NewsFilter.of(null, "breaking", (Category) null), 20)));
+    }
+
+    private static ScrollPosition nextPage(LocalDateTime publishedAt) {
+        return ScrollPosition.forward(Map.of("publishedAt", publishedAt, "id", Long.MAX_VALUE));
+    }
+
+    private void assertUsesIndex(String index, String plan) {
+        var indexes = jdbcTemplate.queryForList("""
+                select c.relname from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                join pg_class p on p.oid = i.inhparent
+                where p.relname = ?""", String.class, index);
+        var names = names(plan);
+        assertTrue(indexes.stream().anyMatch(names::contains), () -> "The plan does not use " + index + ":\n" + plan);
+    }
+
+    // The names in the plan, whole: the index names of the partitions are prefixes of each other
+    private static Set<String> names(String plan) {
+        return Set.copyOf(Arrays.asList(plan.split("[^\\w]+")));
+    }
+
+    // Explains the statement the query sent last, with the values it was sent with.
+    // Those of the background tasks (such as the polling of the outbox by NewsStream) are sent from other threads
+    private String explain(Runnable query) {
+
+        query.run();
+
+        var statement = STATEMENTS.stream()
+                .filter(sent -> sent.thread() == Thread.currentThread())
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        return jdbcTemplate.queryForList("explain " + statement.sql(), String.class, statement.values().values().toArray()).stream()
+                .collect(Collectors.joining("\n"));
+    }
+
+    private record Statement(String sql, Map<Integer, Object> values, Thread thread) {
+    }
+
+    @TestConfiguration
+    static class RecordingConfiguration {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? ProxyDataSourceBuilder.create(dataSource).afterQuery(NewsRepositoryIndexTest::record).build()
+                            : bean;
+                }
+            };
+        }
+    }
+
+    private static void record(ExecutionInfo execution, List<QueryInfo> queries) {
+        for (var query : queries) {
+            var values = new TreeMap<Integer, Object>();
+            if (!query.getParametersList().isEmpty()) {
+                for (var parameter : query.getParametersList().get(0)) {
+                    var args = parameter.getArgs();
+                    if (args[0] instanceof Integer index) {
+                        values.put(index, parameter.getMethod().getName().equals("setNull") ? null : args[1]);
+                    }
+                }
+            }
+            STATEMENTS.add(new Statement(query.getQuery(), values, Thread.currentThread()));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
+import com.example.repository.NewsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CategoryFeedTest {
+
+    private static final int DEPTH = 5;
+
+    private final NewsRepository newsRepository = mock(NewsRepository.class);
+    private final CategoryFeed categoryFeed = new CategoryFeed(newsRepository, DEPTH, 100, new SimpleMeterRegistry(), Duration.ofSeconds(5));
+
+    private final Category category = new Category(1, "category 1", new ArrayList<>());
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        // The five newest of the ten news of the category: 10 (the newest) to 6
+        var latest = LongStream.rangeClosed(6, 10)
+                .map(id -> 16 - id)
+                .mapToObj(this::summary)
+                .toList();
+        when(newsRepository.findFeed(eq(NewsFilter.of(null, null, category)), any(ScrollPosition.class), eq(DEPTH)))
+                .thenReturn(Window.from(latest, ScrollPosition::offset, true));
+    }
+
+    @Test
+    void testGetPages() {
+
+        var first = categoryFeed.get(category, ScrollPosition.keyset(), 3);
+        assertEquals(List.of(10L, 9L, 8L), ids(first));
+        assertTrue(first.hasNext());
+
+        var second = categoryFeed.get(category, first.positionAt(2), 2);
+        assertEquals(List.of(7L, 6L), ids(second));
+        assertTrue(second.hasNext());
+
+        verify(newsRepository, times(1)).findFeed(any(), any(ScrollPosition.class), anyInt());
+    }
+
+    @Test
+    void testGetPageBeyondLatestNews() {
+        var position = ScrollPosition.forward(Map.of("publishedAt", summary(8).getPublishedAt(), "id", 8L));
+        // Only 7 and 6 are in memory, the rest of the page is not
+        assertNull(categoryFeed.get(category, position, 3));
+    }
+
+    @Test
+    void testCreatedNewsIsInserted() {
+
+        categoryFeed.get(category, ScrollPosition.keyset(), 3);
+        publish(NewsChangedEvent.Type.CREATED, 11);
+
+        var page = categoryFeed.get(category, ScrollPosition.keyset(), DEPTH);
+        assertEquals(List.of(11L, 10L, 9L, 8L, 7L), ids(page));
+    }
+
+    @Test
+    void testCreatedNewsAlreadyLoadedIsNotDuplicated() {
+
+        // 10 was read by the load, then its change came
+        categoryFeed.get(category, ScrollPosition.keyset(), 3);
+        publish(NewsChangedEvent.Type.CREATED, 10);
+
+        var page = categoryFeed.get(category, ScrollPosition.keyset(), DEPTH);
+        assertEquals(List.of(10L, 9L, 8L, 7L, 6L), ids(page));
+    }
+
+    @Test
+    void testOlderNewsIsNotInserted() {
+
+        categoryFeed.get(category, ScrollPosition.keyset(), 3);
+        // There may be news between 6 and 1 which are not in memory
+        publish(NewsChangedEvent.Type.CREATED, 1);
+
+        var position = ScrollPosition.forward(Map.of("publishedAt", summary(7).getPublishedAt(), "id", 7L));
+        assertEquals(List.of(6L), ids(categoryFeed.get(category, position, 1)));
+        assertNull(categoryFeed.get(category, position, 2));
+    }
+
+    @Test
+    void testDeletedNewsIsRemoved() {
+
+        categoryFeed.get(category, ScrollPosition.keyset(), 3);
+        publish(NewsChangedEvent.Type.DELETED, 9);
+
+        assertEquals(List.of(10L, 8L, 7L, 6L), ids(categoryFeed.get(category, ScrollPosition.keyset(), 4)));
+        verify(newsRepository, times(1)).findFeed(any(), any(ScrollPosition.class), anyInt());
+    }
+
+    @Test
+    void testChangesMissingFromTheReplicaAreApplied() {
+
+        // 11 is created and 9 deleted before the first request; the replica has applied neither
+        publish(NewsChangedEvent.Type.CREATED, 11);
+        publish(NewsChangedEvent.Type.DELETED, 9);
+
+        assertEquals(List.of(11L, 10L, 8L, 7L), ids(categoryFeed.get(category, ScrollPosition.keyset(), 4)));
+
+        // Kept
+        categoryFeed.get(category, ScrollPosition.keyset(), 4);
+        verify(newsRepository, times(1)).findFeed(any(), any(ScrollPosition.class), anyInt());
+    }
+
+    @Test
+    void testCategoryWithoutName() {
+        assertNull(categoryFeed.get(new Category(), ScrollPosition.keyset(), 3));
+        verifyNoInteractions(newsRepository);
+    }
+
+    // The news with a greater id is the newer one
+    private NewsSummary summary(long id) {
+        return new NewsSummary(id, "title " + id, now.minusHours(100 - id), category.getName());
+    }
+
+    private void publish(NewsChangedEvent.Type type, long id) {
+        var summary = summary(id);
+        var news = new News(id, summary.getTitle(), "content, content, content, content", summary.getPublishedAt(), category);
+        categoryFeed.onNewsChanged(new NewsChangedEvent(type, news, Set.of(category)));
+    }
+
+    private static List<Long> ids(Window<NewsSummary> window) {
+        return window.getContent().stream()
+                .map(NewsSummary::getId)
+                .toList();
+    }
+}
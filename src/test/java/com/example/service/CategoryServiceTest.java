@@ -37,6 +37,7 @@ class CategoryServiceTest {
         );
 
         Mockito.reset(categoryRepository);
+        categoryService.evictCache();
 
         when(categoryRepository.findAll()).thenReturn(new ArrayList<>(categoriesInDB));
         when(categoryRepository.findById(-1)).thenReturn(Optional.empty());
@@ -81,4 +82,50 @@ class CategoryServiceTest {
         assertNull(categoryService.getByName(""));
         verify(categoryRepository, times(1)).findByName("");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllCached() {
+        assertEquals(categoriesInDB, categoryService.getAll());
+        assertEquals(categoriesInDB, categoryService.getAll());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testGetByIdCached() {
+        for (var category : categoriesInDB) {
+            assertEquals(category, categoryService.getById(category.getId()));
+            assertEquals(category, categoryService.getById(category.getId()));
+            verify(categoryRepository, times(1)).findById(category.getId());
+        }
+    }
+
+    @Test
+    void testGetByNameCached() {
+        for (var category : categoriesInDB) {
+            assertEquals(category, categoryService.getByName(category.getName()));
+            assertEquals(category, categoryService.getByName(category.getName()));
+            verify(categoryRepository, times(1)).findByName(category.getName());
+        }
+    }
+
+    @Test
+    void testGetByNameNotFoundNotCached() {
+        assertNull(categoryService.getByName(""));
+        assertNull(categoryService.getByName(""));
+        verify(categoryRepository, times(2)).findByName("");
+    }
+
+    @Test
+    void testEvictCache() {
+        categoryService.getAll();
+        categoryService.getByName(categoriesInDB.get(0).getName());
+
+        categoryService.evictCache();
+
+        categoryService.getAll();
+        categoryService.getByName(categoriesInDB.get(0).getName());
+
+        verify(categoryRepository, times(2)).findAll();
+        verify(categoryRepository, times(2)).findByName(categoriesInDB.get(0).getName());
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.event.NewsOutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real database, in a transaction which is rolled back after every test
+@SpringBootTest(properties = {"news.archive.batch-size=2", "news.archive.lock-timeout=200ms"})
+@Transactional
+class NewsArchiveServiceTest {
+
+    @Autowired
+    private NewsArchiveService newsArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Integer categoryId;
+
+    @BeforeEach
+    void setUp() {
+        categoryId = jdbcTemplate.queryForObject(
+                "insert into categories (name) values ('archive test category') returning id", Integer.class);
+    }
+
+    @Test
+    void testCreatePartitions() {
+
+        newsArchiveService.createPartitions();
+
+        var partition = "news_p" + YearMonth.now().plusMonths(3).format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from pg_class where relname = ?", Integer.class, partition));
+    }
+
+    @Test
+    void testCreatePartitionsMovesNewsOutOfDefaultPartition() {
+
+        var month = YearMonth.now().plusMonths(3);
+        var partition = "news_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        jdbcTemplate.execute("drop table if exists " + partition);
+
+        // Published further ahead than the partitions
+        var id = insertNews(month.atDay(2).atStartOfDay());
+        assertEquals("news_default", partitionOf(id));
+
+        newsArchiveService.createPartitions();
+
+        assertEquals(partition, partitionOf(id));
+    }
+
+    @Test
+    void testCreatePartitionsOfPastMonths() {
+
+        var month = YearMonth.now().minusMonths(10);
+        var partition = "news_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        jdbcTemplate.execute("drop table if exists " + partition);
+
+        // Published before the partitions, as an imported news may be
+        var id = insertNews(month.atDay(2).atStartOfDay());
+        assertEquals("news_default", partitionOf(id));
+
+        newsArchiveService.createPartitions();
+
+        assertEquals(partition, partitionOf(id));
+    }
+
+    @Test
+    void testArchive() {
+
+        var cutoff = LocalDateTime.now().minusYears(30);
+
+        var oldIds = new long[] { insertNews(cutoff.minusDays(3)), insertNews(cutoff.minusDays(2)), insertNews(cutoff.minusDays(1)) };
+        var recentId = insertNews(cutoff.plusDays(1));
+
+        // Three news in batches of two
+        assertEquals(3, newsArchiveService.archive(cutoff));
+
+        for (var id : oldIds) {
+            assertEquals(0, count("news", id));
+            assertEquals(1, count("news_archive", id));
+        }
+        assertEquals(1, count("news", recentId));
+        assertEquals(0, count("news_archive", recentId));
+    }
+
+    // As the relay reads it
+    @Test
+    void testArchiveWritesOutbox() throws Exception {
+
+        var cutoff = LocalDateTime.now().minusYears(30).truncatedTo(ChronoUnit.SECONDS);
+        var id = insertNews(cutoff.minusDays(1));
+        jdbcTemplate.update("insert into news_outbox_versions (news_id, version) values (?, 2)", id);
+
+        assertEquals(1, newsArchiveService.archive(cutoff));
+
+        assertEquals("ARCHIVED", jdbcTemplate.queryForObject("select event_type from news_outbox where news_id = ?", String.class, id));
+        var change = objectMapper.readValue(
+                jdbcTemplate.queryForObject("select payload from news_outbox where news_id = ?", String.class, id), NewsOutboxEvent.class);
+        assertEquals(NewsChangedEvent.Type.ARCHIVED, change.getType());
+        assertEquals(3L, change.getNewsVersion());
+        assertEquals("title " + id, change.getTitle());
+        assertEquals(cutoff.minusDays(1), change.getPublishedAt());
+        assertEquals(Set.of("archive test category"), change.getCategories());
+    }
+
+    // Committed, as the reader is another transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testPartitionInUseIsNotDropped() throws Exception {
+
+        var partition = "news_p1990_01";
+        jdbcTemplate.queryForList("select create_news_partition(?)", LocalDate.of(1990, 1, 1));
+
+        var locked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var reader = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("lock table " + partition + " in access share mode");
+            locked.countDown();
+            await(release);
+        }));
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            // Gives up the lock instead of waiting for the reader
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> newsArchiveService.archive(LocalDateTime.of(1990, 3, 1, 0, 0)));
+            assertEquals(1, jdbcTemplate.queryForObject("select count(*) from pg_class where relname = ?", Integer.class, partition));
+
+            release.countDown();
+            reader.get(10, TimeUnit.SECONDS);
+
+            newsArchiveService.archive(LocalDateTime.of(1990, 3, 1, 0, 0));
+            assertEquals(0, jdbcTemplate.queryForObject("select count(*) from pg_class where relname = ?", Integer.class, partition));
+        } finally {
+            release.countDown();
+            jdbcTemplate.execute("drop table if exists " + partition);
+            jdbcTemplate.update("delete from categories where id = ?", categoryId);
+        }
+    }
+
+    // Held by another instance
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testMaintainSkippedWhileLocked() throws Exception {
+
+        var skippedRuns = meterRegistry.counter("service.archiveNews.skippedRuns");
+        var skippedBefore = skippedRuns.count();
+
+        var locked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var otherInstance = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("select pg_advisory_xact_lock(hashtext(?))", NewsArchiveService.MAINTENANCE_LOCK);
+            locked.countDown();
+            await(release);
+        }));
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            newsArchiveService.maintain();
+            assertEquals(skippedBefore + 1, skippedRuns.count());
+
+            release.countDown();
+            otherInstance.get(10, TimeUnit.SECONDS);
+
+            newsArchiveService.maintain();
+            assertEquals(skippedBefore + 1, skippedRuns.count());
+        } finally {
+            release.countDown();
+            jdbcTemplate.update("delete from categories where id = ?", categoryId);
+        }
+    }
+
+    @Test
+    void testArchiveNothing() {
+        assertEquals(0, newsArchiveService.archive(LocalDateTime.now().minusYears(50)));
+    }
+
+    private long insertNews(LocalDateTime publishedAt) {
+        var id = jdbcTemplate.queryForObject("select nextval('news_seq')", Long.class);
+        jdbcTemplate.update("insert into news (id, title, content, published_at, category_id) values (?, ?, ?, ?, ?)",
+                id, "title " + id, "content, content, content, content", publishedAt, categoryId);
+        return id;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String partitionOf(long id) {
+        return jdbcTemplate.queryForObject("select tableoid::regclass::text from news where id = ?", String.class, id);
+    }
+
+    private int count(String table, long id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.service;
+
+import com.example.model.NewsItem;
+import com.example.repository.NewsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "news.export.chunk-size=2")
+class NewsExportServiceTest {
+
+    @Autowired
+    private NewsExportService newsExportService;
+
+    @MockBean
+    private NewsRepository newsRepository;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final List<NewsItem> items = List.of(
+            new NewsItem(1L, "title 1", "content 1, content 1, content 1", LocalDateTime.of(2024, 1, 1, 10, 0, 0), "category 1"),
+            new NewsItem(2L, "title \"2\"", "content 2\ncontent 2, content 2", LocalDateTime.of(2024, 1, 2, 10, 0, 0), "category 2"),
+            new NewsItem(3L, "title 3", "content 3 content 3 content 3", LocalDateTime.of(2024, 1, 3, 10, 0, 0), "category 1")
+    );
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(newsRepository);
+        closed.set(false);
+        when(newsRepository.streamAll(anyInt())).thenAnswer(invocation -> items.stream().onClose(() -> closed.set(true)));
+    }
+
+    @Test
+    void testExportNdjson() throws IOException {
+
+        var output = new ByteArrayOutputStream();
+
+        assertEquals(3, newsExportService.export(NewsExportService.Format.NDJSON, output));
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"id\":1,\"title\":\"title 1\",\"content\":\"content 1, content 1, content 1\","
+                + "\"publishedAt\":\"2024-01-01T10:00:00\",\"categoryName\":\"category 1\"}", lines[0]);
+        assertTrue(lines[1].contains("\"title\":\"title \\\"2\\\"\""));
+
+        assertTrue(closed.get());
+        verify(newsRepository, times(1)).streamAll(2);
+    }
+
+    @Test
+    void testExportCsv() throws IOException {
+
+        var output = new ByteArrayOutputStream();
+
+        assertEquals(3, newsExportService.export(NewsExportService.Format.CSV, output));
+
+        assertEquals("""
+                id,title,content,published_at,category\r
+                1,title 1,"content 1, content 1, content 1",2024-01-01T10:00:00,category 1\r
+                2,"title ""2""\","content 2
+                content 2, content 2",2024-01-02T10:00:00,category 2\r
+                3,title 3,content 3 content 3 content 3,2024-01-03T10:00:00,category 1\r
+                """, output.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testExportEmpty() throws IOException {
+
+        when(newsRepository.streamAll(anyInt())).thenAnswer(invocation -> List.<NewsItem>of().stream());
+        var output = new ByteArrayOutputStream();
+
+        assertEquals(0, newsExportService.export(NewsExportService.Format.NDJSON, output));
+        assertEquals(0, output.size());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewsFeedCacheTest {
+
+    private final Category category = new Category(1, "category 1", new ArrayList<>());
+    private final Category otherCategory = new Category(2, "category 2", new ArrayList<>());
+
+    private final NewsFeedCache newsFeedCache = new NewsFeedCache(cacheManager(), new SimpleMeterRegistry(), Duration.ofSeconds(5));
+
+    private final NewsFeedCache.Key key = NewsFeedCache.Key.of(NewsFilter.of(null, null, category), ScrollPosition.keyset());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(newsFeedCache);
+    }
+
+    @Test
+    void testPageIsCached() {
+        newsFeedCache.get(key, this::load);
+        newsFeedCache.get(key, this::load);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testChangeEvictsPagesOfItsCategory() {
+
+        var otherKey = NewsFeedCache.Key.of(NewsFilter.of(null, null, otherCategory), ScrollPosition.keyset());
+        newsFeedCache.get(key, this::load);
+        newsFeedCache.get(otherKey, this::load);
+
+        newsFeedCache.onNewsChanged(event(category));
+
+        newsFeedCache.get(key, this::load);
+        newsFeedCache.get(otherKey, this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testPageLoadedDuringEvictionIsNotCached() {
+
+        var page = newsFeedCache.get(key, () -> {
+            // The change commits while the page is being read
+            var loaded = load();
+            newsFeedCache.evict(Set.of(category));
+            return loaded;
+        });
+        assertEquals(1, page.size());
+
+        newsFeedCache.get(key, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadAfterEvictionDoesNotJoinEarlierLoad() throws Exception {
+
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var first = CompletableFuture.supplyAsync(() -> newsFeedCache.get(key, () -> {
+            loading.countDown();
+            await(release);
+            return load();
+        }));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+        // The change commits while the first page is being read: the next request reads it again instead of waiting for it
+        newsFeedCache.evict(Set.of(category));
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> newsFeedCache.get(key, this::load));
+        assertEquals(1, loads.get());
+
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testChangesAreEvictedOnceAfterCommit() {
+
+        newsFeedCache.get(key, this::load);
+
+        TransactionSynchronizationManager.initSynchronization();
+        newsFeedCache.onNewsChanged(event(category));
+        newsFeedCache.onNewsChanged(event(otherCategory));
+
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+
+        // Not evicted before the commit
+        newsFeedCache.get(key, this::load);
+        assertEquals(1, loads.get());
+
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        newsFeedCache.get(key, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    private Window<NewsSummary> load() {
+        loads.incrementAndGet();
+        return Window.from(List.of(new NewsSummary(1L, "title", LocalDateTime.now(), category.getName())), ScrollPosition::offset, false);
+    }
+
+    private NewsChangedEvent event(Category category) {
+        var news = new News(1L, "title", "content, content, content, content", LocalDateTime.now(), category);
+        return new NewsChangedEvent(NewsChangedEvent.Type.CREATED, news, Set.of(category));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CaffeineCacheManager cacheManager() {
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(NewsFeedCache.CACHE_NAME, Caffeine.newBuilder().build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class NewsFeedVersionTest {
+
+    @Autowired
+    private NewsFeedVersion newsFeedVersion;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Category category;
+    private String marker;
+    private final List<News> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        marker = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(new Category(null, "category " + marker, new ArrayList<>()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(news -> newsService.deleteById(news.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void testVersionChangesAfterTheCommit() {
+
+        var before = newsFeedVersion.current();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            created.add(newsService.create(news("title " + marker)));
+            assertEquals(before, newsFeedVersion.current());
+        });
+
+        var after = newsFeedVersion.current();
+        assertTrue(after.number() > before.number());
+        assertNotEquals(before.getETag(), after.getETag());
+    }
+
+    @Test
+    void testRolledBackChangeKeepsVersion() {
+
+        var before = newsFeedVersion.current();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            newsService.create(news("title " + marker));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before, newsFeedVersion.current());
+    }
+
+    private News news(String title) {
+        return new News(null, title, "content " + marker + ", content, content, content", LocalDateTime.now(), category);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.model.NewsImportItem;
+import com.example.repository.NewsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {"news.import.batch-size=2", "news.outbox.enabled=false"})
+class NewsImportServiceTest {
+
+    @Autowired
+    private NewsImportService newsImportService;
+
+    @MockBean
+    private NewsRepository newsRepository;
+    @MockBean
+    private CategoryService categoryService;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+
+        category = new Category(1, "category 1", new ArrayList<>());
+
+        Mockito.reset(newsRepository, categoryService);
+
+        when(categoryService.getByName(category.getName())).thenReturn(category);
+        when(newsRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testImportNews() {
+
+        var items = List.of(
+                item("title 1", category.getName()),
+                item("title 2", category.getName()),
+                item("title 3", category.getName()),
+                item("title 4", category.getName()),
+                item("title 5", category.getName())
+        );
+
+        var result = newsImportService.importNews(items.iterator());
+
+        assertEquals(5, result.getReceived());
+        assertEquals(5, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertTrue(result.getErrors().isEmpty());
+
+        // batches of 2, 2 and 1
+        verify(newsRepository, times(3)).saveAll(anyList());
+        verify(newsRepository, never()).save(any(News.class));
+    }
+
+    @Test
+    void testImportNewsWithInvalidItems() {
+
+        var items = List.of(
+                item("title 1", category.getName()),
+                item("t", category.getName()),
+                item("title 3", "unknown category"),
+                item("title 4", category.getName())
+        );
+
+        var result = newsImportService.importNews(items.iterator());
+
+        assertEquals(4, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("item 2: title"));
+        assertTrue(result.getErrors().get(1).startsWith("item 3: category"));
+
+        verify(newsRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testImportNewsWithFailedBatch() {
+
+        when(newsRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        var items = List.of(
+                item("title 1", category.getName()),
+                item("title 2", category.getName()),
+                item("title 3", category.getName()),
+                item("title 4", category.getName()),
+                item("title 5", category.getName())
+        );
+
+        var result = newsImportService.importNews(items.iterator());
+
+        // The second batch only is rolled back, the import goes on after it
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("item 3: its batch of 2 items could not be saved"));
+        assertTrue(result.getErrors().get(1).startsWith("item 4: its batch of 2 items could not be saved"));
+
+        verify(newsRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void testImportNewsWithMalformedInput() {
+
+        var items = new Iterator<NewsImportItem>() {
+
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public NewsImportItem next() {
+                if (index++ == 3) {
+                    throw new NoSuchElementException("Unexpected character");
+                }
+                return item("title " + index, category.getName());
+            }
+        };
+
+        var result = newsImportService.importNews(items);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("item 4: the item could not be read"));
+
+        verify(newsRepository, times(2)).saveAll(anyList());
+    }
+
+    private static NewsImportItem item(String title, String category) {
+        return new NewsImportItem(title, "content of the " + title + ", content, content", category, LocalDateTime.now());
+    }
+}
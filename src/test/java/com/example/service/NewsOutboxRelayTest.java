@@ -0,0 +1,164 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.event.NewsOutboxEvent;
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real database, with the relay called by the test rather than on schedule
+@SpringBootTest(properties = {
+        "news.outbox.poll-interval=PT1H",
+        "news.outbox.file-sink.path=target/news-changes-test.ndjson"
+})
+@RecordApplicationEvents
+class NewsOutboxRelayTest {
+
+    private static final Path SINK_PATH = Path.of("target/news-changes-test.ndjson");
+
+    @Autowired
+    private NewsOutboxRelay relay;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private Category category;
+    private String marker;
+
+    @BeforeEach
+    void setUp() {
+        marker = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(new Category(null, "category " + marker, new ArrayList<>()));
+        // The changes of the other tests
+        relay.relay();
+        applicationEvents.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from news where category_id = ?", category.getId());
+        categoryRepository.delete(category);
+        categoryService.evictCache();
+    }
+
+    @Test
+    void testRelayInOrder() throws IOException {
+
+        var news = newsService.create(news("title " + marker));
+        news.setTitle("updated title " + marker);
+        newsService.update(news.getId(), news);
+        newsService.deleteById(news.getId());
+
+        assertEquals(3, relay.relay());
+
+        var events = applicationEvents.stream(NewsOutboxEvent.class).toList();
+        assertEquals(List.of(NewsChangedEvent.Type.CREATED, NewsChangedEvent.Type.UPDATED, NewsChangedEvent.Type.DELETED),
+                events.stream().map(NewsOutboxEvent::getType).toList());
+        assertTrue(events.get(0).getId() < events.get(1).getId() && events.get(1).getId() < events.get(2).getId());
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(NewsOutboxEvent::getNewsVersion).toList());
+        assertEquals(news.getId(), events.get(1).getNewsId());
+        assertEquals("updated title " + marker, events.get(1).getTitle());
+        assertEquals(Set.of(category.getName()), events.get(1).getCategories());
+
+        // Also in the file, once
+        var sunk = sunk();
+        assertEquals(events, sunk.subList(sunk.size() - 3, sunk.size()));
+
+        // Nothing more to relay
+        assertEquals(0, relay.relay());
+    }
+
+    @Test
+    void testRolledBackChangeIsNotRelayed() {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            newsService.create(news("title " + marker));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, relay.relay());
+        assertEquals(0, applicationEvents.stream(NewsOutboxEvent.class).count());
+    }
+
+    @Test
+    void testChangeCommittedLateIsRelayed() throws Exception {
+
+        var inserted = new CountDownLatch(1);
+        var commit = new CountDownLatch(1);
+
+        // Takes its id first and commits last
+        var late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            try {
+                var payload = objectMapper.writeValueAsString(new NewsOutboxEvent(null, NewsChangedEvent.Type.CREATED, 0L, null,
+                        "late title " + marker, null, null, null, Set.of(), null));
+                jdbcTemplate.update("insert into news_outbox (event_type, news_id, payload) values ('CREATED', 0, cast(? as jsonb))", payload);
+                inserted.countDown();
+                assertTrue(commit.await(10, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+        newsService.create(news("title " + marker));
+
+        // Not before the earlier transaction is over
+        assertEquals(0, relay.relay());
+
+        commit.countDown();
+        late.get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, relay.relay());
+        var events = applicationEvents.stream(NewsOutboxEvent.class).toList();
+        assertEquals(List.of("late title " + marker, "title " + marker), events.stream().map(NewsOutboxEvent::getTitle).toList());
+    }
+
+    private News news(String title) {
+        return new News(null, title, "content " + marker + ", content, content, content",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), category);
+    }
+
+    private List<NewsOutboxEvent> sunk() throws IOException {
+        var events = new ArrayList<NewsOutboxEvent>();
+        for (var line : Files.readAllLines(SINK_PATH)) {
+            events.add(objectMapper.readValue(line, NewsOutboxEvent.class));
+        }
+        return events;
+    }
+}
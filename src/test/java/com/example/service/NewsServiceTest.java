@@ -3,40 +3,66 @@ package com.example.service;
 import com.example.exception.NewsNotFoundException;
 import com.example.model.Category;
 import com.example.model.News;
+import com.example.model.NewsFilter;
+import com.example.model.NewsItem;
+import com.example.model.NewsSummary;
 import com.example.repository.NewsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
-@SpringBootTest
+// The repository is mocked, so there are no news for the outbox to refer to
+@SpringBootTest(properties = "news.outbox.enabled=false")
 class NewsServiceTest {
 
+    private static final int CATEGORY_FEED_DEPTH = 200;
+
     @Autowired
     private NewsService newsService;
     
+    @Autowired
+    private NewsFeedCache newsFeedCache;
+
+    @Autowired
+    private CategoryFeed categoryFeed;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private NewsRepository newsRepository;
 
+    private List<Category> categories;
+
     private List<News> newsListInDB;
+    private List<NewsSummary> newsSummaries;
 
     private News newNews;
 
     @BeforeEach
     void setUp() {
 
-        var categories = List.of(
+        categories = List.of(
                 new Category(1, "category 1", new ArrayList<>()),
                 new Category(2, "category 2", new ArrayList<>())
         );
@@ -50,20 +76,18 @@ class NewsServiceTest {
         newNews = new News(null, "new title", "new content, new content, new content", LocalDateTime.now(), categories.get(1));
 
         Mockito.reset(newsRepository);
+        newsFeedCache.clear();
+        categoryFeed.clear();
 
-        when(newsRepository.findAll()).thenReturn(new ArrayList<>(newsListInDB));
         when(newsRepository.findById(-1L)).thenReturn(Optional.empty());
         when(newsRepository.save(newNews)).thenReturn(newNews);
         doNothing().when(newsRepository).deleteById(anyLong());
 
         // All these functions will return all the news.
-        when(newsRepository.findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(anyString(), anyString(), any(Category.class))).thenReturn(new ArrayList<>(newsListInDB));
-        when(newsRepository.findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseOrderByPublishedAtDesc(anyString(), anyString())).thenReturn(new ArrayList<>(newsListInDB));
-        when(newsRepository.findAllByTitleLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(anyString(), any(Category.class))).thenReturn(new ArrayList<>(newsListInDB));
-        when(newsRepository.findAllByTitleLikeIgnoreCaseOrderByPublishedAtDesc(anyString())).thenReturn(new ArrayList<>(newsListInDB));
-        when(newsRepository.findAllByContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc(anyString(), any(Category.class))).thenReturn(new ArrayList<>(newsListInDB));
-        when(newsRepository.findAllByContentLikeIgnoreCaseOrderByPublishedAtDesc(anyString())).thenReturn(new ArrayList<>(newsListInDB));
-        when(newsRepository.findAllByCategoryOrderByPublishedAtDesc(any(Category.class))).thenReturn(new ArrayList<>(newsListInDB));
+        newsSummaries = newsListInDB.stream().map(NewsSummary::from).toList();
+        var window = Window.from(new ArrayList<>(newsSummaries), ScrollPosition::offset);
+        when(newsRepository.findFeed(any(), any(ScrollPosition.class), anyInt())).thenReturn(window);
+        when(newsRepository.searchByTextRanked(any(), anyInt())).thenReturn(new ArrayList<>(newsSummaries));
 
         for (var news : newsListInDB) {
             when(newsRepository.findById(news.getId())).thenReturn(Optional.of(news));
@@ -85,59 +109,215 @@ class NewsServiceTest {
         verify(newsRepository, times(1)).findById(-1L);
     }
 
-    @Test
-    void testGetAll() {
-        assertEquals(newsListInDB, newsService.getAll());
-        verify(newsRepository, times(1)).findAll();
-    }
-
     @Test
     void testGetAllByParams() {
-        newsService.getAllByParams("title", "content", new Category());
-        verify(newsRepository, times(1)).findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc("%title%", "%content%", new Category());
+        newsService.getAllByParams("title", "content", new Category(), null);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of("title", "content", new Category()), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
     }
 
     @Test
     void testGetAllByParamsWithoutParams() {
-        newsService.getAllByParams(null, null, null);
-        newsService.getAllByParams("", "", null);
-        verify(newsRepository, times(2)).findAll();
+        newsService.getAllByParams(null, null, null, null);
+        newsService.getAllByParams("", "", null, null);
+        // the same query, so the second page comes from the cache
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, null), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+        verify(newsRepository, never()).findAll();
     }
 
     @Test
     void testGetAllByParamsOnlyTitle() {
-        newsService.getAllByParams("title", null, null);
-        verify(newsRepository, times(1)).findAllByTitleLikeIgnoreCaseOrderByPublishedAtDesc("%title%");
+        newsService.getAllByParams("title", null, null, null);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of("title", null, null), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
     }
 
     @Test
     void testGetAllByParamsOnlyContent() {
-        newsService.getAllByParams(null, "content", null);
-        verify(newsRepository, times(1)).findAllByContentLikeIgnoreCaseOrderByPublishedAtDesc("%content%");
+        newsService.getAllByParams(null, "content", null, null);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, "content", null), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
     }
 
     @Test
     void testGetAllByParamsOnlyCategory() {
-        newsService.getAllByParams(null, null, new Category());
-        verify(newsRepository, times(1)).findAllByCategoryOrderByPublishedAtDesc(new Category());
+        newsService.getAllByParams(null, null, new Category(), null);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, new Category()), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
     }
 
     @Test
     void testGetAllByParamsTitleAndContent() {
-        newsService.getAllByParams("title", "content", null);
-        verify(newsRepository, times(1)).findAllByTitleLikeIgnoreCaseAndContentLikeIgnoreCaseOrderByPublishedAtDesc("%title%", "%content%");
+        newsService.getAllByParams("title", "content", null, null);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of("title", "content", null), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
     }
 
     @Test
     void testGetAllByParamsTitleAndCategory() {
-        newsService.getAllByParams("title", null, new Category());
-        verify(newsRepository, times(1)).findAllByTitleLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc("%title%", new Category());
+        newsService.getAllByParams("title", null, new Category(), null);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of("title", null, new Category()), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
     }
 
     @Test
     void testGetAllByParamsContentAndCategory() {
-        newsService.getAllByParams(null, "content", new Category());
-        verify(newsRepository, times(1)).findAllByContentLikeIgnoreCaseAndCategoryOrderByPublishedAtDesc("%content%", new Category());
+        newsService.getAllByParams(null, "content", new Category(), null);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, "content", new Category()), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+    }
+
+    @Test
+    void testGetAllByParamsCategoriesAndDates() {
+        var filter = NewsFilter.of(null, null, categories, LocalDate.now().minusDays(7), LocalDate.now(), NewsFilter.Sort.OLDEST);
+        newsService.getAllByParams(filter, null);
+        newsService.getAllByParams(filter, null);
+        // several categories are not kept in memory, the page is cached as any other one
+        verify(newsRepository, times(1)).findFeed(filter, ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+    }
+
+    @Test
+    void testGetAllByParamsNextPage() {
+        var position = ScrollPosition.forward(Map.of("publishedAt", newsListInDB.get(2).getPublishedAt(), "id", newsListInDB.get(2).getId()));
+        assertEquals(newsSummaries, newsService.getAllByParams(null, null, null, position).getContent());
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, null), position, NewsService.PAGE_SIZE);
+    }
+
+    @Test
+    void testGetAllByParamsCached() {
+        var first = newsService.getAllByParams("Title ", null, categories.get(0), null);
+        var second = newsService.getAllByParams("title", null, categories.get(0), null);
+        assertSame(first, second);
+        verify(newsRepository, times(1)).findFeed(any(), any(ScrollPosition.class), anyInt());
+    }
+
+    @Test
+    void testGetAllByParamsMetrics() {
+        var timer = meterRegistry.timer("service.getAllByParams", "filter", "title+category");
+        var results = meterRegistry.summary("service.getAllByParams.results", "filter", "title+category");
+        var count = timer.count();
+
+        newsService.getAllByParams("title", "", categories.get(0), null);
+
+        assertEquals(count + 1, timer.count());
+        assertEquals(count + 1, results.count());
+        assertEquals(newsSummaries.size(), results.max());
+    }
+
+    @Test
+    void testFilterTag() {
+        assertEquals("none", NewsService.filterTag(NewsFilter.of("", null, null)));
+        assertEquals("content", NewsService.filterTag(NewsFilter.of(null, "content", null)));
+        assertEquals("title+content+category", NewsService.filterTag(NewsFilter.of("title", "content", categories.get(0))));
+        assertEquals("categories+dates", NewsService.filterTag(
+                NewsFilter.of(null, null, categories, LocalDate.now().minusDays(7), null, NewsFilter.Sort.OLDEST)));
+    }
+
+    @Test
+    void testGetAllByParamsCachedPerPage() {
+        var position = ScrollPosition.forward(Map.of("publishedAt", newsListInDB.get(2).getPublishedAt(), "id", newsListInDB.get(2).getId()));
+        newsService.getAllByParams(null, null, null, null);
+        newsService.getAllByParams(null, null, null, position);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, null), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, null), position, NewsService.PAGE_SIZE);
+    }
+
+    @Test
+    void testGetAllByParamsOnlyCategoryFromLatestNews() {
+        stubCategoryFeeds();
+        var first = newsService.getAllByParams(null, null, categories.get(0), null);
+        var second = newsService.getAllByParams("", "", categories.get(0), null);
+
+        // the news of the first category, newest first
+        assertEquals(List.of(newsSummaries.get(2), newsSummaries.get(1)), first.getContent());
+        assertEquals(first.getContent(), second.getContent());
+        assertFalse(first.hasNext());
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, categories.get(0)), ScrollPosition.keyset(), CATEGORY_FEED_DEPTH);
+        verify(newsRepository, never()).findFeed(NewsFilter.of(null, null, categories.get(0)), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+    }
+
+    @Test
+    void testCreateEvictsAffectedPages() {
+        stubCategoryFeeds();
+        newsService.getAllByParams(null, null, null, null);
+        newsService.getAllByParams(null, null, categories.get(0), null);
+        newsService.getAllByParams(null, null, categories.get(1), null);
+
+        // newNews is in the second category
+        var created = new News(4L, newNews.getTitle(), newNews.getContent(), newNews.getPublishedAt(), newNews.getCategory());
+        when(newsRepository.save(newNews)).thenReturn(created);
+        newsService.create(newNews);
+
+        newsService.getAllByParams(null, null, null, null);
+        newsService.getAllByParams(null, null, categories.get(0), null);
+        var secondCategory = newsService.getAllByParams(null, null, categories.get(1), null);
+
+        // the feed without filters is read again, the latest news of the categories are updated in place
+        verify(newsRepository, times(2)).findFeed(NewsFilter.of(null, null, null), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, categories.get(0)), ScrollPosition.keyset(), CATEGORY_FEED_DEPTH);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, categories.get(1)), ScrollPosition.keyset(), CATEGORY_FEED_DEPTH);
+        assertEquals(List.of(NewsSummary.from(created), newsSummaries.get(0)), secondCategory.getContent());
+    }
+
+    @Test
+    void testUpdateEvictsPagesOfBothCategories() {
+        stubCategoryFeeds();
+        newsService.getAllByParams(null, null, categories.get(0), null);
+        newsService.getAllByParams(null, null, categories.get(1), null);
+
+        // the first news moves from the second category to the first one
+        var news = newsListInDB.get(0);
+        var movedNews = new News(news.getId(), news.getTitle(), news.getContent(), news.getPublishedAt(), categories.get(0));
+        when(newsRepository.save(movedNews)).thenReturn(movedNews);
+        newsService.update(news.getId(), movedNews);
+
+        var firstCategory = newsService.getAllByParams(null, null, categories.get(0), null);
+        var secondCategory = newsService.getAllByParams(null, null, categories.get(1), null);
+
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, categories.get(0)), ScrollPosition.keyset(), CATEGORY_FEED_DEPTH);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, categories.get(1)), ScrollPosition.keyset(), CATEGORY_FEED_DEPTH);
+        assertEquals(List.of(newsSummaries.get(2), newsSummaries.get(1), NewsSummary.from(movedNews)), firstCategory.getContent());
+        assertTrue(secondCategory.isEmpty());
+    }
+
+    @Test
+    void testDeleteByIdEvictsAffectedPages() {
+        stubCategoryFeeds();
+        newsService.getAllByParams(null, null, null, null);
+        newsService.getAllByParams(null, null, categories.get(1), null);
+
+        // the first news is in the second category
+        newsService.deleteById(newsListInDB.get(0).getId());
+
+        newsService.getAllByParams(null, null, null, null);
+        var secondCategory = newsService.getAllByParams(null, null, categories.get(1), null);
+
+        verify(newsRepository, times(2)).findFeed(NewsFilter.of(null, null, null), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, categories.get(1)), ScrollPosition.keyset(), CATEGORY_FEED_DEPTH);
+        assertTrue(secondCategory.isEmpty());
+    }
+
+    @Test
+    void testSearchByRelevance() {
+        assertEquals(newsSummaries, newsService.searchByRelevance(NewsFilter.of("title", "content", new Category())));
+        verify(newsRepository, times(1)).searchByTextRanked(NewsFilter.of("title", "content", new Category()), NewsService.PAGE_SIZE);
+    }
+
+    @Test
+    void testSearchByRelevanceWithoutText() {
+        newsService.searchByRelevance(NewsFilter.of(null, "", new Category()));
+        verify(newsRepository, never()).searchByTextRanked(any(), anyInt());
+        verify(newsRepository, times(1)).findFeed(NewsFilter.of(null, null, new Category()), ScrollPosition.keyset(), NewsService.PAGE_SIZE);
+    }
+
+    @Test
+    void testStreamByParams() {
+
+        var closed = new AtomicBoolean();
+        var items = newsListInDB.stream()
+                .map(news -> new NewsItem(news.getId(), news.getTitle(), null, news.getPublishedAt(), news.getCategory().getName()))
+                .toList();
+        when(newsRepository.streamFeed(any(), any(ScrollPosition.class), anyInt(), anyBoolean()))
+                .thenReturn(items.stream().onClose(() -> closed.set(true)));
+
+        var result = newsService.streamByParams(NewsFilter.of("title", null, null), null, 10, false, Stream::toList);
+
+        assertEquals(items, result);
+        assertTrue(closed.get());
+        verify(newsRepository, times(1)).streamFeed(NewsFilter.of("title", null, null), ScrollPosition.keyset(), 10, false);
     }
 
     @Test
@@ -175,4 +355,16 @@ class NewsServiceTest {
         newsService.deleteById(-1L);
         verify(newsRepository, times(1)).deleteById(-1L);
     }
-}
\ No newline at end of file
+
+    // The latest news of each category are only the news of that category
+    private void stubCategoryFeeds() {
+        for (var category : categories) {
+            var news = newsSummaries.stream()
+                    .filter(summary -> summary.getCategoryName().equals(category.getName()))
+                    .sorted(Comparator.comparing(NewsSummary::getPublishedAt).reversed())
+                    .toList();
+            when(newsRepository.findFeed(eq(NewsFilter.of(null, null, category)), any(ScrollPosition.class), anyInt()))
+                    .thenReturn(Window.from(news, ScrollPosition::offset));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// With the outbox: runs against the real database, with the outbox read by the test rather than on schedule
+@SpringBootTest(properties = "news.stream.poll-interval=PT1H")
+class NewsStreamOutboxTest {
+
+    @Autowired
+    private NewsStream newsStream;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+    private String marker;
+    private final List<News> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        marker = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(new Category(null, "category " + marker, new ArrayList<>()));
+        // The changes of the other tests
+        newsStream.poll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(news -> newsService.deleteById(news.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void testChangesAreReadFromTheOutbox() throws InterruptedException {
+
+        var emitter = new NewsStreamTest.RecordingEmitter();
+        newsStream.subscribe(emitter, null);
+
+        var news = create("title " + marker);
+        // Not before the outbox is read
+        assertNull(emitter.poll());
+
+        newsStream.poll();
+        var event = emitter.next();
+        assertTrue(event.contains("event:created"));
+        assertTrue(event.contains("title=title " + marker + ","));
+
+        newsService.update(news.getId(), new News(null, "title updated " + marker, news.getContent(), news.getPublishedAt(), category));
+        newsStream.poll();
+        assertTrue(emitter.next().contains("title=title updated " + marker + ","));
+        assertNull(emitter.poll());
+    }
+
+    @Test
+    void testChangesOfAnotherInstanceAreStreamed() throws InterruptedException {
+
+        var emitter = new NewsStreamTest.RecordingEmitter();
+        newsStream.subscribe(emitter, null);
+
+        // Written by another instance: the second change of a news, then its first one, committed in the reverse order
+        var newsId = ThreadLocalRandom.current().nextLong(1_000_000_000L, 2_000_000_000L);
+        insertIntoOutbox(newsId, 2, "title 2 " + marker);
+        insertIntoOutbox(newsId, 1, "title 1 " + marker);
+
+        assertEquals(2, newsStream.poll());
+        assertTrue(emitter.next().contains("title=title 2 " + marker + ","));
+        // The older change is not streamed after the newer one
+        assertNull(emitter.poll());
+    }
+
+    @Test
+    void testChangesPublishedOnlyInTheInstanceAreNotStreamed() throws InterruptedException {
+
+        var emitter = new NewsStreamTest.RecordingEmitter();
+        newsStream.subscribe(emitter, null);
+
+        var news = new News(1L, "title " + marker, "content, content, content", LocalDateTime.now(), category);
+        newsStream.onNewsChanged(new NewsChangedEvent(NewsChangedEvent.Type.CREATED, news, Set.of(category)));
+
+        assertNull(emitter.poll());
+    }
+
+    private News create(String title) {
+        var news = newsService.create(new News(null, title, "content " + marker + ", content, content, content", LocalDateTime.now(), category));
+        created.add(news);
+        return news;
+    }
+
+    private void insertIntoOutbox(long newsId, long newsVersion, String title) {
+        jdbcTemplate.update("""
+                insert into news_outbox (event_type, news_id, payload)
+                values ('UPDATED', ?, jsonb_build_object('type', 'UPDATED', 'newsId', ?::bigint, 'newsVersion', ?::bigint,
+                        'title', ?::text, 'publishedAt', now()::timestamp, 'categoryName', ?::text, 'categories', jsonb_build_array(?::text)))""",
+                newsId, newsId, newsVersion, title, category.getName(), category.getName());
+    }
+}
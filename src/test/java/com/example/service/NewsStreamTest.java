@@ -0,0 +1,193 @@
+package com.example.service;
+
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.News;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Without the outbox: the stream has the changes of this instance, as they are published (see NewsStreamOutboxTest)
+@SpringBootTest(properties = {"news.stream.subscriber-queue-size=4", "news.outbox.enabled=false"})
+class NewsStreamTest {
+
+    @Autowired
+    private NewsStream newsStream;
+
+    private final Category category = new Category(1, "category 1", new ArrayList<>());
+
+    @Test
+    void testSubscriberReceivesCreatedAndUpdatedNews() throws InterruptedException {
+
+        var emitter = new RecordingEmitter();
+        assertTrue(newsStream.subscribe(emitter, null));
+
+        publish(NewsChangedEvent.Type.CREATED, 1L, "title 1");
+        publish(NewsChangedEvent.Type.UPDATED, 1L, "title 1 updated");
+        publish(NewsChangedEvent.Type.DELETED, 1L, "title 1 updated");
+        publish(NewsChangedEvent.Type.CREATED, 2L, "title 2");
+
+        var created = emitter.next();
+        assertTrue(created.contains("event:created"));
+        assertTrue(created.contains("title=title 1,"));
+
+        var updated = emitter.next();
+        assertTrue(updated.contains("event:updated"));
+        assertTrue(updated.contains("title=title 1 updated"));
+
+        // Deletions are not streamed
+        assertTrue(emitter.next().contains("title=title 2"));
+        assertNull(emitter.poll());
+    }
+
+    @Test
+    void testResumeFromLastEventId() throws InterruptedException {
+
+        var emitter = new RecordingEmitter();
+        newsStream.subscribe(emitter, null);
+
+        publish(NewsChangedEvent.Type.CREATED, 10L, "title 10");
+        var lastEventId = eventId(emitter.next());
+
+        publish(NewsChangedEvent.Type.CREATED, 11L, "title 11");
+        publish(NewsChangedEvent.Type.CREATED, 12L, "title 12");
+
+        var resumed = new RecordingEmitter();
+        newsStream.subscribe(resumed, lastEventId);
+
+        assertTrue(resumed.next().contains("title=title 11"));
+        assertTrue(resumed.next().contains("title=title 12"));
+        assertNull(resumed.poll());
+    }
+
+    @Test
+    void testResumeFromUnknownEventIdResets() throws InterruptedException {
+
+        var emitter = new RecordingEmitter();
+        newsStream.subscribe(emitter, 1L);
+
+        assertTrue(emitter.next().contains("event:" + NewsStream.RESET_EVENT));
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnected() throws InterruptedException {
+
+        var blocked = new CountDownLatch(1);
+        var slow = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        newsStream.subscribe(slow, null);
+
+        // The first event is taken by the blocked sender, the next four fill the queue
+        for (long id = 20; id < 30; id++) {
+            publish(NewsChangedEvent.Type.CREATED, id, "title " + id);
+        }
+        blocked.countDown();
+
+        assertTrue(slow.awaitCompleted());
+    }
+
+    @Test
+    void testHeartbeatIsSentByTheSender() throws InterruptedException {
+
+        var sending = new CountDownLatch(1);
+        var concurrentSends = new AtomicInteger();
+        var maxConcurrentSends = new AtomicInteger();
+        var emitter = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                maxConcurrentSends.accumulateAndGet(concurrentSends.incrementAndGet(), Math::max);
+                try {
+                    sending.await(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrentSends.decrementAndGet();
+                super.send(builder);
+            }
+        };
+        newsStream.subscribe(emitter, null);
+
+        publish(NewsChangedEvent.Type.CREATED, 40L, "title 40");
+        newsStream.heartbeat();
+        newsStream.heartbeat();
+        sending.countDown();
+
+        assertTrue(emitter.next().contains("title=title 40"));
+        // Only the events are recorded, after the heartbeats have been sent one at a time with them
+        assertNull(emitter.poll());
+        assertEquals(1, maxConcurrentSends.get());
+        assertFalse(emitter.isCompleted());
+    }
+
+    private void publish(NewsChangedEvent.Type type, long id, String title) {
+        var news = new News(id, title, "content, content, content", LocalDateTime.now(), category);
+        newsStream.onNewsChanged(new NewsChangedEvent(type, news, Set.of(category)));
+    }
+
+    static Long eventId(String event) {
+        var start = event.indexOf("id:") + 3;
+        return Long.parseLong(event.substring(start, event.indexOf('\n', start)));
+    }
+
+    static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            var event = builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining());
+            if (!event.startsWith(":")) {
+                events.add(event);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+            super.complete();
+        }
+
+        boolean isCompleted() {
+            return completed.getCount() == 0;
+        }
+
+        boolean awaitCompleted() throws InterruptedException {
+            return completed.await(5, TimeUnit.SECONDS);
+        }
+
+        String next() throws InterruptedException {
+            var event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            return event;
+        }
+
+        String poll() throws InterruptedException {
+            return events.poll(200, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.service;
+
+import com.example.model.NewsWrite;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewsWriteJournalTest {
+
+    private static final long SEGMENT_SIZE = 1024 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testReadPending() throws IOException {
+
+        var path = directory.resolve("journal");
+        try (var journal = new NewsWriteJournal(path, objectMapper, SEGMENT_SIZE)) {
+            journal.appendWrite(write("1"));
+            journal.appendWrite(write("2"));
+            journal.appendWrite(write("3"));
+            journal.appendCompleted("2");
+        }
+
+        // As read after a restart
+        try (var journal = new NewsWriteJournal(path, objectMapper, SEGMENT_SIZE)) {
+            assertEquals(List.of(write("1"), write("3")), journal.readPending());
+        }
+    }
+
+    @Test
+    void testTornLineIsSkipped() throws IOException {
+
+        var path = directory.resolve("journal");
+        try (var journal = new NewsWriteJournal(path, objectMapper, SEGMENT_SIZE)) {
+            journal.appendWrite(write("1"));
+        }
+        // The segment written before the restart
+        Files.writeString(directory.resolve("journal.1"), "{\"write\":{\"key\":\"2\",\"tit", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (var journal = new NewsWriteJournal(path, objectMapper, SEGMENT_SIZE)) {
+            assertEquals(List.of(write("1")), journal.readPending());
+        }
+    }
+
+    @Test
+    void testCompletedSegmentsAreDropped() throws IOException {
+
+        var path = directory.resolve("journal");
+        // A segment per write
+        try (var journal = new NewsWriteJournal(path, objectMapper, 1)) {
+            journal.appendWrite(write("1"));
+            journal.appendWrite(write("2"));
+            journal.appendWrite(write("3"));
+            assertEquals(3, journal.segmentsCount());
+
+            // Not before the older one
+            journal.appendCompleted("2");
+            assertEquals(4, journal.segmentsCount());
+
+            journal.appendCompleted("1");
+            assertEquals(3, journal.segmentsCount());
+            assertFalse(Files.exists(directory.resolve("journal.1")));
+            assertFalse(Files.exists(directory.resolve("journal.2")));
+        }
+
+        try (var journal = new NewsWriteJournal(path, objectMapper, 1)) {
+            assertEquals(List.of(write("3")), journal.readPending());
+        }
+    }
+
+    @Test
+    void testJournalWrittenBeforeTheSegmentsIsRead() throws IOException {
+
+        var path = directory.resolve("journal");
+        Files.writeString(path, objectMapper.writeValueAsString(new NewsWriteJournal.Entry(write("1"), null)) + "\n");
+
+        try (var journal = new NewsWriteJournal(path, objectMapper, SEGMENT_SIZE)) {
+            assertEquals(List.of(write("1")), journal.readPending());
+            journal.appendCompleted("1");
+            assertFalse(Files.exists(path));
+        }
+    }
+
+    @Test
+    void testSync() throws IOException, InterruptedException {
+
+        var path = directory.resolve("journal");
+        try (var journal = new NewsWriteJournal(path, objectMapper, SEGMENT_SIZE)) {
+            // One force serves the writes appended before it
+            var threads = new ArrayList<Thread>();
+            for (var i = 0; i < 20; i++) {
+                var key = String.valueOf(i);
+                threads.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        journal.sync(journal.appendWrite(write(key)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            for (var thread : threads) {
+                thread.join();
+            }
+        }
+
+        try (var journal = new NewsWriteJournal(path, objectMapper, SEGMENT_SIZE)) {
+            assertEquals(20, journal.readPending().size());
+        }
+    }
+
+    private static NewsWrite write(String key) {
+        return new NewsWrite(key, NewsWrite.Operation.CREATE, null, "title " + key, "content, content, content, content",
+                "category", LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+}
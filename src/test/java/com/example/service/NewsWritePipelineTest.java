@@ -0,0 +1,146 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.model.NewsWrite;
+import com.example.model.NewsWriteStatus;
+import com.example.repository.CategoryRepository;
+import com.example.repository.NewsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real database, with the writes committed by the writer of the pipeline
+@SpringBootTest(properties = {
+        "news.write-pipeline.enabled=true",
+        "news.write-pipeline.journal=target/news-writes-test.journal"
+})
+class NewsWritePipelineTest {
+
+    @Autowired
+    private NewsWritePipeline writePipeline;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private NewsRepository newsRepository;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+    private String marker;
+
+    @BeforeEach
+    void setUp() {
+        marker = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(new Category(null, "category " + marker, new ArrayList<>()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from news_writes where idempotency_key like ?", marker + "%");
+        jdbcTemplate.update("delete from news where category_id = ?", category.getId());
+        categoryRepository.delete(category);
+        categoryService.evictCache();
+    }
+
+    @Test
+    void testSubmit() throws InterruptedException {
+
+        var news = news("title " + marker);
+        var status = writePipeline.submit(NewsWrite.of(marker + "-create", NewsWrite.Operation.CREATE, null, news));
+        assertNotNull(status);
+
+        var done = awaitDone(marker + "-create");
+        var written = newsRepository.findById(done.getNewsId()).orElseThrow();
+        assertEquals(news.getTitle(), written.getTitle());
+        assertEquals(category.getId(), written.getCategory().getId());
+
+        var updated = news("updated title " + marker);
+        writePipeline.submit(NewsWrite.of(marker + "-update", NewsWrite.Operation.UPDATE, done.getNewsId(), updated));
+
+        assertEquals(done.getNewsId(), awaitDone(marker + "-update").getNewsId());
+        assertEquals(updated.getTitle(), newsRepository.findById(done.getNewsId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testSubmitTwice() throws InterruptedException {
+
+        var write = NewsWrite.of(marker, NewsWrite.Operation.CREATE, null, news("title " + marker));
+        writePipeline.submit(write);
+        var first = awaitDone(marker);
+
+        // A resubmitted form, or a write replayed from the journal: the news is not created again
+        var second = writePipeline.submit(write);
+
+        assertEquals(NewsWriteStatus.State.DONE, second.getState());
+        assertEquals(first.getNewsId(), second.getNewsId());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from news where category_id = ?", Integer.class, category.getId()));
+    }
+
+    @Test
+    void testSubmitOfWrittenKeyIsAcceptedButNotAppliedAgain() throws InterruptedException {
+
+        // Written before its status was forgotten: submit does not look into the database, the writer does
+        var newsId = jdbcTemplate.queryForObject("select nextval('news_seq')", Long.class);
+        jdbcTemplate.update("insert into news_writes (idempotency_key, news_id) values (?, ?)", marker, newsId);
+
+        var status = writePipeline.submit(NewsWrite.of(marker, NewsWrite.Operation.CREATE, null, news("title " + marker)));
+        assertEquals(NewsWriteStatus.State.PENDING, status.getState());
+
+        assertEquals(newsId, awaitDone(marker).getNewsId());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from news where category_id = ?", Integer.class, category.getId()));
+    }
+
+    @Test
+    void testFailedWriteIsAcceptedAgain() throws InterruptedException {
+
+        var missingId = jdbcTemplate.queryForObject("select nextval('news_seq')", Long.class);
+        writePipeline.submit(NewsWrite.of(marker, NewsWrite.Operation.UPDATE, missingId, news("title " + marker)));
+        assertEquals(NewsWriteStatus.State.FAILED, await(marker).getState());
+
+        var status = writePipeline.submit(NewsWrite.of(marker, NewsWrite.Operation.CREATE, null, news("title " + marker)));
+
+        assertEquals(NewsWriteStatus.State.PENDING, status.getState());
+        var done = awaitDone(marker);
+        assertEquals(category.getId(), newsRepository.findById(done.getNewsId()).orElseThrow().getCategory().getId());
+    }
+
+    @Test
+    void testUnknownKey() {
+        assertNull(writePipeline.getStatus(marker));
+    }
+
+    private News news(String title) {
+        return new News(null, title, "content " + marker + ", content, content, content",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), category);
+    }
+
+    private NewsWriteStatus awaitDone(String key) throws InterruptedException {
+        var status = await(key);
+        assertEquals(NewsWriteStatus.State.DONE, status.getState(), status.getError());
+        return status;
+    }
+
+    private NewsWriteStatus await(String key) throws InterruptedException {
+        for (var i = 0; i < 100; i++) {
+            var status = writePipeline.getStatus(key);
+            if (status.getState() != NewsWriteStatus.State.PENDING) {
+                return status;
+            }
+            Thread.sleep(100);
+        }
+        return fail("The write '" + key + "' is not done");
+    }
+}
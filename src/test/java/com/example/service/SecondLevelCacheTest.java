@@ -0,0 +1,114 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.repository.CategoryRepository;
+import com.example.repository.NewsRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real database: the entities read by id and the categories found by name come from the
+// second-level cache of Hibernate, which stays consistent with the changes made through the services
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private NewsRepository newsRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Category category;
+    private News news;
+
+    @BeforeEach
+    void setUp() {
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        var marker = UUID.randomUUID().toString().substring(0, 8);
+        category = categoryRepository.save(new Category(null, "category " + marker, new ArrayList<>()));
+        news = newsRepository.save(new News(null, "title " + marker, "content " + marker + ", content, content, content",
+                LocalDateTime.now(), category));
+
+        entityManagerFactory.getCache().evictAll();
+        categoryService.evictCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        newsRepository.deleteById(news.getId());
+        categoryRepository.delete(category);
+        categoryService.evictCache();
+    }
+
+    @Test
+    void testGetByIdCached() {
+
+        newsService.getById(news.getId());
+
+        statistics.clear();
+        var cached = newsService.getById(news.getId());
+
+        assertEquals(news.getTitle(), cached.getTitle());
+        assertEquals(category.getName(), cached.getCategory().getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(News.CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void testGetByIdAfterUpdate() {
+
+        newsService.getById(news.getId());
+
+        var changed = new News(null, news.getTitle() + " updated", news.getContent(), news.getPublishedAt(), category);
+        newsService.update(news.getId(), changed);
+
+        assertEquals(news.getTitle() + " updated", newsService.getById(news.getId()).getTitle());
+    }
+
+    @Test
+    void testFindByNameCached() {
+
+        categoryRepository.findByName(category.getName());
+
+        statistics.clear();
+        assertEquals(category, categoryRepository.findByName(category.getName()).orElseThrow());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryRegionStatistics(Category.BY_NAME_CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void testFindByNameAfterRename() {
+
+        categoryRepository.findByName(category.getName());
+
+        var oldName = category.getName();
+        category.setName(oldName + " renamed");
+        category = categoryRepository.save(category);
+
+        // The query cache knows that 'categories' has changed since the result was cached
+        assertTrue(categoryRepository.findByName(oldName).isEmpty());
+        assertEquals(category, categoryRepository.findByName(category.getName()).orElseThrow());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testConcurrentLoadsShareOneResult() throws Exception {
+
+        var singleFlight = new SingleFlight<String, String>("test", Duration.ofSeconds(10), meterRegistry);
+        var loads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        var first = runAsync(() -> singleFlight.get("key", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "loaded";
+        }));
+        awaitLoading(singleFlight);
+
+        var waiting = new Thread[3];
+        var results = new CompletableFuture[waiting.length];
+        for (var i = 0; i < waiting.length; i++) {
+            var result = new CompletableFuture<String>();
+            results[i] = result;
+            waiting[i] = new Thread(() -> result.complete(singleFlight.get("key", () -> {
+                loads.incrementAndGet();
+                return "loaded again";
+            })));
+            waiting[i].start();
+        }
+        for (var thread : waiting) {
+            awaitWaiting(thread);
+        }
+
+        release.countDown();
+
+        assertEquals("loaded", first.get());
+        for (var result : results) {
+            assertEquals("loaded", result.get());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(3, meterRegistry.get("single-flight.coalesced").tag("name", "test").counter().count());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testFailureIsShared() throws Exception {
+
+        var singleFlight = new SingleFlight<String, String>("test", Duration.ofSeconds(10), meterRegistry);
+        var release = new CountDownLatch(1);
+
+        var first = runAsync(() -> singleFlight.get("key", () -> {
+            await(release);
+            throw new IllegalStateException("failed");
+        }));
+        awaitLoading(singleFlight);
+
+        var failure = new CompletableFuture<RuntimeException>();
+        var waiting = new Thread(() -> failure.complete(assertThrows(IllegalStateException.class,
+                () -> singleFlight.get("key", () -> "loaded"))));
+        waiting.start();
+        awaitWaiting(waiting);
+
+        release.countDown();
+
+        assertEquals("failed", failure.get(10, TimeUnit.SECONDS).getMessage());
+        assertThrows(Exception.class, first::get);
+    }
+
+    @Test
+    void testTimeout() throws Exception {
+
+        var singleFlight = new SingleFlight<String, String>("test", Duration.ofMillis(50), meterRegistry);
+        var release = new CountDownLatch(1);
+
+        var first = runAsync(() -> singleFlight.get("key", () -> {
+            await(release);
+            return "loaded";
+        }));
+        awaitLoading(singleFlight);
+
+        // Stops waiting for the stuck load
+        assertEquals("loaded again", singleFlight.get("key", () -> "loaded again"));
+        assertEquals(1, meterRegistry.get("single-flight.timeouts").tag("name", "test").counter().count());
+
+        release.countDown();
+        assertEquals("loaded", first.get());
+    }
+
+    @Test
+    void testInterruptedCallerDoesNotLoad() throws Exception {
+
+        var singleFlight = new SingleFlight<String, String>("test", Duration.ofSeconds(10), meterRegistry);
+        var loads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        var first = runAsync(() -> singleFlight.get("key", () -> {
+            await(release);
+            return "loaded";
+        }));
+        awaitLoading(singleFlight);
+
+        var interrupted = new CompletableFuture<Boolean>();
+        var waiting = new Thread(() -> {
+            assertThrows(IllegalStateException.class, () -> singleFlight.get("key", () -> {
+                loads.incrementAndGet();
+                return "loaded again";
+            }));
+            interrupted.complete(Thread.currentThread().isInterrupted());
+        });
+        waiting.start();
+        awaitWaiting(waiting);
+        waiting.interrupt();
+
+        assertTrue(interrupted.get(10, TimeUnit.SECONDS));
+        assertEquals(0, loads.get());
+
+        release.countDown();
+        assertEquals("loaded", first.get());
+    }
+
+    @Test
+    void testSequentialLoadsAreNotCoalesced() {
+
+        var singleFlight = new SingleFlight<String, Integer>("test", Duration.ofSeconds(10), meterRegistry);
+        var loads = new AtomicInteger();
+
+        assertEquals(1, singleFlight.get("key", loads::incrementAndGet));
+        assertEquals(2, singleFlight.get("key", loads::incrementAndGet));
+        assertEquals(0, meterRegistry.get("single-flight.coalesced").tag("name", "test").counter().count());
+    }
+
+    private static <T> CompletableFuture<T> runAsync(Supplier<T> supplier) {
+        var future = new CompletableFuture<T>();
+        new Thread(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }).start();
+        return future;
+    }
+
+    private static void awaitLoading(SingleFlight<?, ?> singleFlight) throws InterruptedException {
+        while (singleFlight.size() == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    // Blocked on the load of another thread
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
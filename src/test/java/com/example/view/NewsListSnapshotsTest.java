@@ -0,0 +1,162 @@
+package com.example.view;
+
+import com.example.controller.converter.CategoryConverter;
+import com.example.event.NewsArchivedEvent;
+import com.example.event.NewsChangedEvent;
+import com.example.model.Category;
+import com.example.model.News;
+import com.example.model.NewsFilter;
+import com.example.model.NewsSummary;
+import com.example.service.CategoryService;
+import com.example.service.NewsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The snapshots are rendered by the tests, not in the background
+@SpringBootTest(properties = {
+        "news.snapshots.enabled=true",
+        "news.snapshots.debounce=1h"
+})
+@AutoConfigureMockMvc
+class NewsListSnapshotsTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private NewsListSnapshots snapshots;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockBean
+    private NewsService newsService;
+    @MockBean
+    private CategoryService categoryService;
+    @MockBean
+    private CategoryConverter categoryConverter;
+
+    private List<Category> categories;
+    private List<News> news;
+
+    @BeforeEach
+    void setUp() {
+
+        categories = List.of(
+                new Category(1, "category 1", new ArrayList<>()),
+                new Category(2, "category 2", new ArrayList<>())
+        );
+        news = List.of(
+                new News(1L, "title 1", "content 1, content 1, content 1", LocalDateTime.now().minusDays(3L).truncatedTo(ChronoUnit.SECONDS), categories.get(1)),
+                new News(2L, "title 2", "content 2, content 2, content 2", LocalDateTime.now().minusDays(2L).truncatedTo(ChronoUnit.SECONDS), categories.get(0))
+        );
+
+        Mockito.reset(newsService, categoryService);
+
+        when(categoryService.getAll()).thenReturn(categories);
+        when(newsService.getAllByParams(any(NewsFilter.class), any())).thenReturn(window(news));
+        when(newsService.getAllByParams(NewsFilter.of(null, null, categories.get(0)), null)).thenReturn(window(news.subList(1, 2)));
+        for (var category : categories) {
+            when(categoryConverter.convert(category.getName())).thenReturn(category);
+        }
+
+        snapshots.refreshAll();
+        snapshots.render();
+        clearInvocations(newsService);
+    }
+
+    @Test
+    void testGetAllFromSnapshot() throws Exception {
+
+        mvc.perform(get("/news"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_HTML))
+                .andExpect(content().string(containsString(news.get(0).shortView())))
+                .andExpect(content().string(containsString(news.get(1).shortView())))
+                .andExpect(content().string(containsString("href=\"/news/2\"")));
+
+        verifyNoInteractions(newsService);
+    }
+
+    @Test
+    void testGetCategoryFromSnapshot() throws Exception {
+
+        mvc.perform(get("/news").param("category", categories.get(0).getName()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(news.get(1).shortView())))
+                .andExpect(content().string(not(containsString(news.get(0).shortView()))));
+
+        verifyNoInteractions(newsService);
+    }
+
+    @Test
+    void testFilteredIsRenderedLive() throws Exception {
+
+        mvc.perform(get("/news").param("title", "title"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("news/list"));
+
+        verify(newsService, times(1)).getAllByParams(any(NewsFilter.class), any());
+    }
+
+    @Test
+    void testChangeDropsSnapshots() throws Exception {
+
+        var created = new News(3L, "title 3", "content 3, content 3, content 3", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), categories.get(0));
+        eventPublisher.publishEvent(new NewsChangedEvent(NewsChangedEvent.Type.CREATED, created, Set.of(categories.get(0))));
+
+        // Rendered live until the snapshots are rendered again
+        mvc.perform(get("/news"))
+                .andExpect(view().name("news/list"));
+        mvc.perform(get("/news").param("category", categories.get(0).getName()))
+                .andExpect(view().name("news/list"));
+        // Not affected by the change
+        mvc.perform(get("/news").param("category", categories.get(1).getName()))
+                .andExpect(status().isOk());
+        verify(newsService, times(2)).getAllByParams(any(NewsFilter.class), any());
+
+        snapshots.render();
+        clearInvocations(newsService);
+
+        mvc.perform(get("/news"))
+                .andExpect(status().isOk());
+        verifyNoInteractions(newsService);
+    }
+
+    @Test
+    void testArchiveDropsSnapshots() throws Exception {
+
+        eventPublisher.publishEvent(new NewsArchivedEvent(LocalDateTime.now().minusYears(1), 1));
+
+        mvc.perform(get("/news").param("category", categories.get(1).getName()))
+                .andExpect(view().name("news/list"));
+        verify(newsService, times(1)).getAllByParams(any(NewsFilter.class), any());
+    }
+
+    private static Window<NewsSummary> window(List<News> news) {
+        return Window.from(news.stream().map(NewsSummary::from).toList(), ScrollPosition::offset);
+    }
+}